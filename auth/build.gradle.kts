@@ -20,6 +20,7 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-redis")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.projectlombok:lombok")
     implementation("org.springframework.session:spring-session-data-redis")
     annotationProcessor("org.projectlombok:lombok")
@@ -28,6 +29,7 @@ dependencies {
     runtimeOnly("org.postgresql:postgresql")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     implementation(project(":core:auth"))
+    implementation(project(":core:microservice"))
 }
 
 tasks.withType<Test> {
@@ -1,5 +1,9 @@
 package fhv.omni.auth.config;
 
+import fhv.omni.auth.service.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,8 +16,14 @@ import org.springframework.security.config.annotation.web.configurers.RequestCac
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -25,7 +35,7 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable) // CORS and CSRF disabled for dev testing purposes
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/login", "/register").permitAll()
+                        .requestMatchers("/login", "/register", "/availability").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -40,9 +50,28 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Enforces the session limit across auth instances. Needs the principal index in Redis,
+     * which is only kept when this is enabled; otherwise the in-memory registry is used.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "auth.session.principal-index", havingValue = "true")
+    public SessionRegistry sessionRegistry(FindByIndexNameSessionRepository<? extends Session> sessionRepository) {
+        return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+    }
+
+    /**
+     * BCrypt on a bounded pool of its own. Stored hashes with a lower strength are upgraded on
+     * the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:10}") int strength,
+                                           @Value("${auth.password.threads:0}") int threads,
+                                           @Value("${auth.password.queue-capacity:16}") int queueCapacity,
+                                           @Value("${auth.password.timeout:5s}") Duration timeout,
+                                           MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeout, meterRegistry);
     }
 
     @Bean
@@ -4,11 +4,11 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import fhv.omni.auth.config.jackson.SimpleGrantedAuthorityMixin;
+import fhv.omni.auth.config.session.CompactSessionSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -19,11 +19,6 @@ import org.springframework.session.web.http.HttpSessionIdResolver;
 
 @Configuration
 public class SessionConfig {
-    @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory();
-    }
-
     @Bean
     public HttpSessionIdResolver httpSessionIdResolver(@Autowired CookieSerializer cookieSerializer) {
         CookieHttpSessionIdResolver resolver = new CookieHttpSessionIdResolver();
@@ -32,7 +27,16 @@ public class SessionConfig {
     }
 
     @Bean
-    public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer(
+            @Value("${auth.session.compact-serializer:true}") boolean writeCompact) {
+        return new CompactSessionSerializer(jsonSessionSerializer(), writeCompact);
+    }
+
+    /**
+     * The format sessions were stored in before {@link CompactSessionSerializer}, still read for
+     * sessions created earlier and used for values without a compact layout.
+     */
+    private RedisSerializer<Object> jsonSessionSerializer() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader()));
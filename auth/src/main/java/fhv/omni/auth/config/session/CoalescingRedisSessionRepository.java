@@ -0,0 +1,362 @@
+package fhv.omni.auth.config.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Session repository that keeps the hash layout of Spring Session's indexed Redis repository
+ * ({@code <namespace>:sessions:<id>} with {@code creationTime}, {@code lastAccessedTime},
+ * {@code maxInactiveInterval} and {@code sessionAttr:*} fields), so the gateway reads both alike,
+ * but writes far less:
+ * <ul>
+ *     <li>All changes of a request are written in one pipeline: the changed fields and the key
+ *     expiry, no expiration sets and no keyspace notifications.</li>
+ *     <li>A request that only touched the session writes nothing if the last access was stored
+ *     less than {@code accessWindow} ago. Sessions may therefore expire up to one window
+ *     early, keep it small compared to the session timeout.</li>
+ *     <li>The principal index is only kept when {@code indexPrincipals} is set, which is needed
+ *     for concurrency control across instances.</li>
+ * </ul>
+ * Attribute changes are never deferred, they carry the login and must be visible to the
+ * gateway right away.
+ */
+@Slf4j
+public class CoalescingRedisSessionRepository
+        implements FindByIndexNameSessionRepository<CoalescingRedisSessionRepository.CoalescedSession> {
+    private static final String CREATION_TIME = "creationTime";
+    private static final String LAST_ACCESSED_TIME = "lastAccessedTime";
+    private static final String MAX_INACTIVE_INTERVAL = "maxInactiveInterval";
+    private static final String ATTRIBUTE_PREFIX = "sessionAttr:";
+
+    private final RedisOperations<String, Object> redisOperations;
+    private final String namespace;
+    private final Duration defaultMaxInactiveInterval;
+    private final long accessWindowMillis;
+    private final boolean indexPrincipals;
+    private final PrincipalNameIndexResolver<Session> principalNameResolver = new PrincipalNameIndexResolver<>();
+    private final Map<String, Long> storedAccessTimes;
+
+    /**
+     * @param redisOperations            Template whose hash values use the session serializer
+     * @param namespace                  Key prefix shared with the gateway, e.g. {@code spring:omni:session}
+     * @param defaultMaxInactiveInterval Timeout of new sessions
+     * @param accessWindow               How long a stored last access time may lag behind
+     * @param maxTrackedSessions         Sessions whose stored access time is remembered, others
+     *                                   are written on their next request
+     * @param indexPrincipals            Whether to keep the principal name index
+     */
+    public CoalescingRedisSessionRepository(RedisOperations<String, Object> redisOperations,
+                                            String namespace,
+                                            Duration defaultMaxInactiveInterval,
+                                            Duration accessWindow,
+                                            int maxTrackedSessions,
+                                            boolean indexPrincipals) {
+        this.redisOperations = redisOperations;
+        this.namespace = namespace.endsWith(":") ? namespace : namespace + ":";
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.accessWindowMillis = accessWindow.toMillis();
+        this.indexPrincipals = indexPrincipals;
+        this.storedAccessTimes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxTrackedSessions;
+            }
+        });
+    }
+
+    @Override
+    public CoalescedSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new CoalescedSession(session, true, null);
+    }
+
+    @Override
+    public void save(CoalescedSession session) {
+        String originalId = session.originalId;
+        boolean idChanged = !session.isNew && !session.getId().equals(originalId);
+        long lastAccessed = session.getLastAccessedTime().toEpochMilli();
+
+        if (!session.isNew && !idChanged && session.delta.isEmpty() && !accessIsDue(originalId, lastAccessed)) {
+            return;
+        }
+
+        session.delta.put(LAST_ACCESSED_TIME, lastAccessed);
+        if (session.isNew) {
+            session.delta.put(CREATION_TIME, session.getCreationTime().toEpochMilli());
+            session.delta.put(MAX_INACTIVE_INTERVAL, (int) session.getMaxInactiveInterval().getSeconds());
+        }
+
+        String principal = indexPrincipals ? principalNameResolver.resolveIndexValueFor(session) : null;
+        Map<String, Object> changed = new HashMap<>();
+        List<Object> removed = new ArrayList<>();
+        session.delta.forEach((field, value) -> {
+            if (value != null) {
+                changed.put(field, value);
+            } else {
+                removed.add(field);
+            }
+        });
+
+        redisOperations.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                String key = getSessionKey(session.getId());
+
+                if (idChanged) {
+                    operations.rename(getSessionKey(originalId), key);
+                }
+                operations.opsForHash().putAll(key, changed);
+                if (!removed.isEmpty()) {
+                    operations.opsForHash().delete(key, removed.toArray());
+                }
+                expire(operations, key, session.getMaxInactiveInterval());
+
+                if (indexPrincipals) {
+                    updatePrincipalIndex(operations, session, principal, idChanged ? originalId : null);
+                }
+                return null;
+            }
+        });
+
+        if (idChanged) {
+            storedAccessTimes.remove(originalId);
+        }
+        storedAccessTimes.put(session.getId(), lastAccessed);
+        session.markSaved(principal);
+    }
+
+    @Override
+    public CoalescedSession findById(String id) {
+        Map<Object, Object> entries = redisOperations.opsForHash().entries(getSessionKey(id));
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        MapSession loaded = toMapSession(id, entries);
+        if (loaded == null || loaded.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+
+        // Remember what is stored, so touching the session within the window writes nothing
+        storedAccessTimes.put(id, loaded.getLastAccessedTime().toEpochMilli());
+        String principal = indexPrincipals ? principalNameResolver.resolveIndexValueFor(loaded) : null;
+        return new CoalescedSession(loaded, false, principal);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        storedAccessTimes.remove(id);
+        String key = getSessionKey(id);
+
+        String principal = null;
+        if (indexPrincipals) {
+            Map<Object, Object> entries = redisOperations.opsForHash().entries(key);
+            MapSession stored = entries.isEmpty() ? null : toMapSession(id, entries);
+            principal = stored != null ? principalNameResolver.resolveIndexValueFor(stored) : null;
+        }
+
+        String principalKey = principal != null ? getPrincipalKey(principal) : null;
+        redisOperations.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.delete(key);
+                if (principalKey != null) {
+                    operations.opsForSet().remove(principalKey, id);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Only supports the principal name index, and only if it is kept.
+     */
+    @Override
+    public Map<String, CoalescedSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!indexPrincipals || !PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Map.of();
+        }
+
+        Set<Object> sessionIds = redisOperations.opsForSet().members(getPrincipalKey(indexValue));
+        if (sessionIds == null) {
+            return Map.of();
+        }
+
+        Map<String, CoalescedSession> sessions = new HashMap<>();
+        for (Object sessionId : sessionIds) {
+            CoalescedSession session = findById(sessionId.toString());
+            if (session != null) {
+                sessions.put(session.getId(), session);
+            } else {
+                redisOperations.opsForSet().remove(getPrincipalKey(indexValue), sessionId);
+            }
+        }
+        return sessions;
+    }
+
+    private boolean accessIsDue(String sessionId, long lastAccessed) {
+        Long stored = storedAccessTimes.get(sessionId);
+        return stored == null || lastAccessed - stored >= accessWindowMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void updatePrincipalIndex(RedisOperations operations, CoalescedSession session,
+                                      String principal, String previousId) {
+        String previousPrincipal = session.storedPrincipal;
+
+        if (previousPrincipal != null && (previousId != null || !previousPrincipal.equals(principal))) {
+            operations.opsForSet().remove(getPrincipalKey(previousPrincipal), previousId != null ? previousId : session.getId());
+        }
+        if (principal != null) {
+            String principalKey = getPrincipalKey(principal);
+            operations.opsForSet().add(principalKey, session.getId());
+            // The index outlives its sessions at most by one timeout
+            expire(operations, principalKey, session.getMaxInactiveInterval());
+        }
+    }
+
+    private void expire(RedisOperations<String, Object> operations, String key, Duration maxInactiveInterval) {
+        if (maxInactiveInterval.isNegative()) {
+            operations.persist(key);
+        } else {
+            // Grace of one window, the stored access time may lag behind by that much
+            operations.expire(key, maxInactiveInterval.plusMillis(accessWindowMillis));
+        }
+    }
+
+    private MapSession toMapSession(String id, Map<Object, Object> entries) {
+        Object creationTime = entries.get(CREATION_TIME);
+        Object lastAccessedTime = entries.get(LAST_ACCESSED_TIME);
+        Object maxInactiveInterval = entries.get(MAX_INACTIVE_INTERVAL);
+        if (!(creationTime instanceof Number) || !(lastAccessedTime instanceof Number)
+                || !(maxInactiveInterval instanceof Number)) {
+            log.warn("Ignoring incomplete session {}", id);
+            return null;
+        }
+
+        MapSession session = new MapSession(id);
+        session.setCreationTime(Instant.ofEpochMilli(((Number) creationTime).longValue()));
+        session.setLastAccessedTime(Instant.ofEpochMilli(((Number) lastAccessedTime).longValue()));
+        session.setMaxInactiveInterval(Duration.ofSeconds(((Number) maxInactiveInterval).longValue()));
+
+        entries.forEach((field, value) -> {
+            String name = field.toString();
+            if (name.startsWith(ATTRIBUTE_PREFIX)) {
+                session.setAttribute(name.substring(ATTRIBUTE_PREFIX.length()), value);
+            }
+        });
+        return session;
+    }
+
+    private String getSessionKey(String sessionId) {
+        return namespace + "sessions:" + sessionId;
+    }
+
+    private String getPrincipalKey(String principal) {
+        return namespace + "index:" + PRINCIPAL_NAME_INDEX_NAME + ":" + principal;
+    }
+
+    /**
+     * Session that records which fields changed during a request, so saving it writes only
+     * those.
+     */
+    public static final class CoalescedSession implements Session {
+        private final MapSession delegate;
+        private final Map<String, Object> delta = new HashMap<>();
+        private boolean isNew;
+        private String originalId;
+        private String storedPrincipal;
+
+        private CoalescedSession(MapSession delegate, boolean isNew, String storedPrincipal) {
+            this.delegate = delegate;
+            this.isNew = isNew;
+            this.originalId = delegate.getId();
+            this.storedPrincipal = storedPrincipal;
+        }
+
+        private void markSaved(String principal) {
+            delta.clear();
+            isNew = false;
+            originalId = delegate.getId();
+            storedPrincipal = principal;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            delta.put(ATTRIBUTE_PREFIX + attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            // Removed attributes are recorded as null and deleted from the hash on save
+            delta.put(ATTRIBUTE_PREFIX + attributeName, null);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            delta.put(MAX_INACTIVE_INTERVAL, (int) interval.getSeconds());
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
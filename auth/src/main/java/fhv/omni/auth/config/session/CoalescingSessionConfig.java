@@ -0,0 +1,45 @@
+package fhv.omni.auth.config.session;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Replaces Spring Boot's indexed Redis session repository with
+ * {@link CoalescingRedisSessionRepository}. Without it, Boot configures the indexed repository
+ * from the {@code spring.session.redis.*} properties as before.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "auth.session.coalescing.enabled", havingValue = "true")
+public class CoalescingSessionConfig {
+
+    @Bean
+    public CoalescingRedisSessionRepository sessionRepository(
+            RedisConnectionFactory redisConnectionFactory,
+            @Qualifier("springSessionDefaultRedisSerializer") RedisSerializer<Object> sessionSerializer,
+            @Value("${spring.session.redis.namespace:spring:session}") String namespace,
+            @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+            @Value("${auth.session.coalescing.access-window:30s}") Duration accessWindow,
+            @Value("${auth.session.coalescing.max-tracked-sessions:10000}") int maxTrackedSessions,
+            @Value("${auth.session.principal-index:false}") boolean indexPrincipals) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(sessionSerializer);
+        redisTemplate.setHashValueSerializer(sessionSerializer);
+        redisTemplate.afterPropertiesSet();
+
+        return new CoalescingRedisSessionRepository(redisTemplate, namespace, timeout, accessWindow,
+                maxTrackedSessions, indexPrincipals);
+    }
+}
@@ -0,0 +1,104 @@
+package fhv.omni.auth.config.session;
+
+import fhv.omni.core.microservice.session.CompactSessionFormat;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the session values auth actually uses in the {@link CompactSessionFormat} instead of
+ * typed JSON: the session timestamps, the principal name and the security context, which is
+ * reduced to the username and roles. The stored password hash and the type metadata are dropped.
+ * Other values, and every value not in the compact layout, go through the previous JSON
+ * serializer, so sessions written before the switch stay readable.
+ */
+public class CompactSessionSerializer implements RedisSerializer<Object> {
+    private final RedisSerializer<Object> jsonSerializer;
+    private final boolean writeCompact;
+
+    /**
+     * @param jsonSerializer Serializer of the previous format, used for reading old sessions
+     *                       and for values without a compact layout
+     * @param writeCompact   Whether new values are written in the compact format; disable while
+     *                       readers of the session store still only understand JSON
+     */
+    public CompactSessionSerializer(RedisSerializer<Object> jsonSerializer, boolean writeCompact) {
+        this.jsonSerializer = jsonSerializer;
+        this.writeCompact = writeCompact;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null || !writeCompact) {
+            return jsonSerializer.serialize(value);
+        }
+
+        return switch (value) {
+            case String string -> CompactSessionFormat.writeString(string);
+            case Long number -> CompactSessionFormat.writeLong(number);
+            case Integer number -> CompactSessionFormat.writeInt(number);
+            case SecurityContext context when isCompactable(context.getAuthentication()) ->
+                    writeAuthentication(context.getAuthentication());
+            default -> jsonSerializer.serialize(value);
+        };
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        try {
+            if (!CompactSessionFormat.isCompact(bytes)) {
+                return jsonSerializer.deserialize(bytes);
+            }
+
+            return switch (CompactSessionFormat.tag(bytes)) {
+                case CompactSessionFormat.TAG_STRING -> CompactSessionFormat.readString(bytes);
+                case CompactSessionFormat.TAG_LONG -> CompactSessionFormat.readLong(bytes);
+                case CompactSessionFormat.TAG_INT -> CompactSessionFormat.readInt(bytes);
+                case CompactSessionFormat.TAG_SECURITY_CONTEXT -> toSecurityContext(CompactSessionFormat.readPrincipal(bytes));
+                default -> throw new SerializationException("Unknown session value tag: " + CompactSessionFormat.tag(bytes));
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Could not read session value", e);
+        }
+    }
+
+    /**
+     * Only fully authenticated logins are reduced, anything else keeps its JSON form.
+     */
+    private static boolean isCompactable(Authentication authentication) {
+        return authentication instanceof UsernamePasswordAuthenticationToken
+                && authentication.isAuthenticated()
+                && authentication.getName() != null;
+    }
+
+    private static byte[] writeAuthentication(Authentication authentication) {
+        List<String> authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        try {
+            return CompactSessionFormat.writePrincipal(authentication.getName(), authorities);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write security context", e);
+        }
+    }
+
+    private static SecurityContext toSecurityContext(CompactSessionFormat.Principal stored) {
+        List<GrantedAuthority> authorities = stored.authorities().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+
+        // The principal only carries what the session needs, credentials are not kept after login
+        User principal = new User(stored.username(), "", authorities);
+        return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities));
+    }
+}
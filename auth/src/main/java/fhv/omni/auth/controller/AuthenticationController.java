@@ -2,6 +2,7 @@ package fhv.omni.auth.controller;
 
 import fhv.omni.auth.controller.model.AuthenticationRequest;
 import fhv.omni.auth.controller.model.RegistrationRequest;
+import fhv.omni.auth.domain.PasswordHashingBusyException;
 import fhv.omni.auth.service.RegistrationService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -9,6 +10,7 @@ import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +20,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -52,6 +55,8 @@ public class AuthenticationController {
             HttpSession session = request.getSession(true);
             session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
                     SecurityContextHolder.getContext());
+            // Stored as a plain attribute so the gateway can validate the session without the security context
+            session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, authentication.getName());
 
             log.info("Login successful for user: {}, session ID: {}", authRequest.username(), session.getId());
             return ResponseEntity.ok()
@@ -60,6 +65,9 @@ public class AuthenticationController {
         } catch (AuthenticationException e) {
             log.warn("Login failed for user '{}': {}", authRequest.username(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Login failed: " + e.getMessage()));
+        } catch (PasswordHashingBusyException e) {
+            log.warn("Login rejected for user '{}': {}", authRequest.username(), e.getMessage());
+            return tooManyRequests();
         }
     }
 
@@ -70,11 +78,22 @@ public class AuthenticationController {
                     .body(Map.of("message", "Passwords do not match"));
         }
 
-        registrationService.register(request.email(), request.username(), request.password());
+        try {
+            registrationService.register(request.email(), request.username(), request.password());
+        } catch (PasswordHashingBusyException e) {
+            log.warn("Registration rejected for user '{}': {}", request.username(), e.getMessage());
+            return tooManyRequests();
+        }
 
         return ResponseEntity.ok(Map.of("message", "Registration Successful")); // TODO: Use standard response builder for success messages
     }
 
+    private static ResponseEntity<Map<String, String>> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", "Server is busy, please try again"));
+    }
+
     @RequestMapping(value = "/logout", method = {RequestMethod.POST, RequestMethod.GET})
     public ResponseEntity<String> logout(HttpServletRequest request) {
         //TODO: implement
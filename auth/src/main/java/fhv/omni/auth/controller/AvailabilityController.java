@@ -0,0 +1,51 @@
+package fhv.omni.auth.controller;
+
+import fhv.omni.auth.service.AvailabilityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+public class AvailabilityController {
+
+    private final AvailabilityService availabilityService;
+
+    @Autowired
+    public AvailabilityController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    /**
+     * Checked while the registration form is typed in, so it is public and mostly answered from
+     * memory. Only the given values are part of the response.
+     */
+    @GetMapping(value = "/availability", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Boolean>> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        AvailabilityService.Availability availability = availabilityService.check(
+                username == null || username.isBlank() ? null : username,
+                email == null || email.isBlank() ? null : email);
+
+        Map<String, Boolean> response = new HashMap<>();
+        if (availability.username() != null) {
+            response.put("username", availability.username());
+        }
+        if (availability.email() != null) {
+            response.put("email", availability.email());
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(response);
+    }
+}
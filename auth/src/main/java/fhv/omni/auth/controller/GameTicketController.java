@@ -0,0 +1,38 @@
+package fhv.omni.auth.controller;
+
+import fhv.omni.auth.service.GameTicketService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+public class GameTicketController {
+
+    private final GameTicketService gameTicketService;
+
+    @Autowired
+    public GameTicketController(GameTicketService gameTicketService) {
+        this.gameTicketService = gameTicketService;
+    }
+
+    @PostMapping(value = "/game-ticket", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> issueGameTicket() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        log.debug("Issuing game ticket for user: {}", username);
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(Map.of(
+                        "ticket", gameTicketService.issueTicket(username),
+                        "expiresIn", gameTicketService.ticketTtlSeconds()
+                ));
+    }
+}
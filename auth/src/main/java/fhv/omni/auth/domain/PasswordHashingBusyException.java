@@ -0,0 +1,11 @@
+package fhv.omni.auth.domain;
+
+/**
+ * Thrown when a password cannot be hashed or checked because the hashing executor is
+ * saturated. Callers answer with 429 so the client retries later.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
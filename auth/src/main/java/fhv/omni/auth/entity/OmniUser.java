@@ -66,6 +66,10 @@ public class OmniUser implements UserDetails, Serializable {
         return this.password;
     }
 
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
     @Override
     public String getUsername() {
         return this.username;
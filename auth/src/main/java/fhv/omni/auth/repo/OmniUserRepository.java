@@ -2,8 +2,11 @@ package fhv.omni.auth.repo;
 
 import fhv.omni.auth.entity.OmniUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +16,14 @@ public interface OmniUserRepository extends JpaRepository<OmniUser, String> {
     Optional<OmniUser> findByUsernameIgnoreCase(String username);
 
     Optional<OmniUser> findByEmail(String email);
+
+    List<UserIdentifiers> findAllProjectedBy();
+
+    /**
+     * Users holding the username (ignoring case) or the email, in a single query.
+     */
+    @Query("select u.username as username, u.email as email from OmniUser u " +
+            "where lower(u.username) = lower(:username) or lower(u.email) = lower(:email)")
+    List<UserIdentifiers> findIdentifiersByUsernameOrEmail(@Param("username") String username,
+                                                           @Param("email") String email);
 }
@@ -0,0 +1,10 @@
+package fhv.omni.auth.repo;
+
+/**
+ * Projection of the fields that identify a user, loaded without roles or password hashes.
+ */
+public interface UserIdentifiers {
+    String getUsername();
+
+    String getEmail();
+}
@@ -0,0 +1,98 @@
+package fhv.omni.auth.service;
+
+import fhv.omni.auth.repo.OmniUserRepository;
+import fhv.omni.auth.repo.UserIdentifiers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Answers whether a username or email is still free, mostly from memory. Bloom filters over the
+ * lower-cased usernames and emails of all users rule out most values without touching the
+ * database; only possible hits are confirmed with one combined query.
+ * <p>
+ * The filters only learn about registrations on this instance, so the answer is a hint for the
+ * registration form. {@link RegistrationService} still checks the database.
+ */
+@Slf4j
+@Service
+public class AvailabilityService {
+
+    private final OmniUserRepository omniUserRepository;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private volatile boolean loaded;
+
+    @Autowired
+    public AvailabilityService(OmniUserRepository omniUserRepository,
+                               @Value("${auth.availability.expected-users:100000}") int expectedUsers,
+                               @Value("${auth.availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.omniUserRepository = omniUserRepository;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadExistingUsers() {
+        List<UserIdentifiers> users = omniUserRepository.findAllProjectedBy();
+        users.forEach(user -> addUser(user.getUsername(), user.getEmail()));
+        loaded = true;
+        log.info("Availability index loaded with {} users", users.size());
+    }
+
+    public void addUser(String username, String email) {
+        if (username != null) {
+            usernames.add(normalize(username));
+        }
+        if (email != null) {
+            emails.add(normalize(email));
+        }
+    }
+
+    /**
+     * @param username Username to check, or null
+     * @param email    Email to check, or null
+     * @return Availability of the values that were given
+     */
+    public Availability check(String username, String email) {
+        String normalizedUsername = username != null ? normalize(username) : null;
+        String normalizedEmail = email != null ? normalize(email) : null;
+
+        // Until the filters are loaded every value is a possible hit
+        boolean usernameMaybeTaken = normalizedUsername != null && (!loaded || usernames.mightContain(normalizedUsername));
+        boolean emailMaybeTaken = normalizedEmail != null && (!loaded || emails.mightContain(normalizedEmail));
+
+        if (!usernameMaybeTaken && !emailMaybeTaken) {
+            return new Availability(normalizedUsername != null ? true : null, normalizedEmail != null ? true : null);
+        }
+
+        List<UserIdentifiers> matches = omniUserRepository.findIdentifiersByUsernameOrEmail(
+                usernameMaybeTaken ? normalizedUsername : null,
+                emailMaybeTaken ? normalizedEmail : null);
+
+        boolean usernameTaken = usernameMaybeTaken && matches.stream()
+                .anyMatch(user -> normalizedUsername.equals(normalize(user.getUsername())));
+        boolean emailTaken = emailMaybeTaken && matches.stream()
+                .anyMatch(user -> user.getEmail() != null && normalizedEmail.equals(normalize(user.getEmail())));
+
+        return new Availability(normalizedUsername != null ? !usernameTaken : null,
+                normalizedEmail != null ? !emailTaken : null);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param username Whether the username is free, null if it was not checked
+     * @param email    Whether the email is free, null if it was not checked
+     */
+    public record Availability(Boolean username, Boolean email) {
+    }
+}
@@ -0,0 +1,78 @@
+package fhv.omni.auth.service;
+
+import fhv.omni.core.microservice.http.ServiceClientFactory;
+import fhv.omni.core.microservice.ticket.GameTicketCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues the short-lived tickets players present when opening a game socket. The ticket carries
+ * the player's selected skin and unlocked maps, so joining a game needs neither the session
+ * store nor the shop.
+ */
+@Slf4j
+@Service
+public class GameTicketService {
+
+    private static final ParameterizedTypeReference<List<ShopEntitlements>> ENTITLEMENTS_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final GameTicketCodec gameTicketCodec;
+    private final RestClient shopClient;
+
+    @Autowired
+    public GameTicketService(GameTicketCodec gameTicketCodec, ServiceClientFactory serviceClientFactory,
+                             @Value("${services.shop.url:http://localhost:8084}") String shopServiceUrl) {
+        this.gameTicketCodec = gameTicketCodec;
+        this.shopClient = serviceClientFactory.create(shopServiceUrl);
+    }
+
+    /**
+     * If the shop cannot be reached the ticket is issued without entitlements, the game server
+     * then looks them up itself.
+     */
+    public String issueTicket(String username) {
+        ShopEntitlements entitlements = fetchEntitlements(username);
+
+        if (entitlements == null) {
+            return gameTicketCodec.issue(username, null, null);
+        }
+
+        return gameTicketCodec.issue(username, entitlements.selectedSkin(),
+                entitlements.unlockedMaps() != null ? entitlements.unlockedMaps() : List.of());
+    }
+
+    public long ticketTtlSeconds() {
+        return gameTicketCodec.ttl().toSeconds();
+    }
+
+    private ShopEntitlements fetchEntitlements(String username) {
+        try {
+            List<ShopEntitlements> response = shopClient.post()
+                    .uri("/api/shop/entitlements")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("usernames", List.of(username)))
+                    .retrieve()
+                    .body(ENTITLEMENTS_TYPE);
+
+            if (response == null || response.isEmpty()) {
+                log.warn("No entitlements returned for {}", username);
+                return null;
+            }
+
+            return response.getFirst();
+        } catch (Exception e) {
+            log.warn("Failed to get entitlements for {}, issuing ticket without them: {}", username, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package fhv.omni.auth.service;
 
+import fhv.omni.auth.entity.OmniUser;
 import fhv.omni.auth.repo.OmniUserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
-public class OmniUserDetailsService implements UserDetailsService {
+public class OmniUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final OmniUserRepository userDetailsRepository;
 
@@ -22,4 +26,15 @@ public class OmniUserDetailsService implements UserDetailsService {
         return userDetailsRepository.findByUsernameIgnoreCase(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
     }
+
+    /**
+     * Stores a password rehashed with the current cost factor after a successful login.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        OmniUser omniUser = (OmniUser) user;
+        omniUser.setPassword(newPassword);
+        log.info("Upgraded password hash of user: {}", omniUser.getUsername());
+        return userDetailsRepository.save(omniUser);
+    }
 }
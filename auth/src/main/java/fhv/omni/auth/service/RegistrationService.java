@@ -4,10 +4,12 @@ import fhv.omni.auth.domain.*;
 import fhv.omni.auth.entity.OmniUser;
 import fhv.omni.auth.entity.Role;
 import fhv.omni.auth.repo.OmniUserRepository;
+import fhv.omni.auth.repo.UserIdentifiers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -19,14 +21,16 @@ public class RegistrationService {
     private final IValidateUsername usernameValidator;
     private final PasswordEncoder passwordEncoder;
     private final OmniUserRepository omniUserRepository;
+    private final AvailabilityService availabilityService;
 
     @Autowired
-    public RegistrationService(IValidateEmail emailValidator, IValidatePassword passwordValidator, IValidateUsername usernameValidator, PasswordEncoder passwordEncoder, OmniUserRepository omniUserRepository) {
+    public RegistrationService(IValidateEmail emailValidator, IValidatePassword passwordValidator, IValidateUsername usernameValidator, PasswordEncoder passwordEncoder, OmniUserRepository omniUserRepository, AvailabilityService availabilityService) {
         this.emailValidator = emailValidator;
         this.passwordValidator = passwordValidator;
         this.usernameValidator = usernameValidator;
         this.passwordEncoder = passwordEncoder;
         this.omniUserRepository = omniUserRepository;
+        this.availabilityService = availabilityService;
     }
 
     public void register(String email, String username, String password) {
@@ -50,11 +54,13 @@ public class RegistrationService {
             throw new IllegalArgumentException(e);
         }
 
-        if (omniUserRepository.findByUsernameIgnoreCase(username).isPresent()) {
+        List<UserIdentifiers> existingUsers = omniUserRepository.findIdentifiersByUsernameOrEmail(username, email);
+
+        if (existingUsers.stream().anyMatch(user -> user.getUsername().equalsIgnoreCase(username))) {
             throw new IllegalArgumentException("Username is already in use");
         }
 
-        if (omniUserRepository.findByEmail(email).isPresent()) {
+        if (!existingUsers.isEmpty()) {
             throw new IllegalArgumentException("Email is already in use");
         }
 
@@ -69,6 +75,7 @@ public class RegistrationService {
         );
 
         omniUserRepository.save(omniUser);
+        availabilityService.addUser(username, email);
     }
 
 }
@@ -0,0 +1,13 @@
+package fhv.omni.auth.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ShopEntitlements(
+        String username,
+        String selectedSkin,
+        List<String> unlockedMaps
+) {
+}
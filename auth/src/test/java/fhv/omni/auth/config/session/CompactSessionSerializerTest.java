@@ -0,0 +1,70 @@
+package fhv.omni.auth.config.session;
+
+import fhv.omni.core.microservice.session.CompactSessionFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The gateway reads the session values auth writes through {@link CompactSessionFormat}; these
+ * tests keep the serializer and that reader in step.
+ */
+class CompactSessionSerializerTest {
+    private final CompactSessionSerializer serializer =
+            new CompactSessionSerializer(new GenericJackson2JsonRedisSerializer(), true);
+
+    @Test
+    void sessionAttributesAreReadableByTheSharedReader() throws Exception {
+        byte[] lastAccessedTime = serializer.serialize(1_700_000_000_123L);
+        byte[] maxInactiveInterval = serializer.serialize(1800);
+        byte[] principalName = serializer.serialize("alice");
+
+        assertTrue(CompactSessionFormat.isCompact(lastAccessedTime));
+        assertEquals(1_700_000_000_123L, CompactSessionFormat.readLong(lastAccessedTime));
+        assertEquals(1800L, CompactSessionFormat.readLong(maxInactiveInterval));
+        assertEquals("alice", CompactSessionFormat.readString(principalName));
+    }
+
+    @Test
+    void headerMatchesTheSharedFormat() {
+        byte[] bytes = serializer.serialize("alice");
+
+        assertEquals(CompactSessionFormat.MAGIC, bytes[0]);
+        assertEquals(CompactSessionFormat.VERSION, bytes[1]);
+        assertEquals(CompactSessionFormat.TAG_STRING, bytes[2]);
+    }
+
+    @Test
+    void securityContextRoundTrips() throws Exception {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        User user = new User("alice", "hash", authorities);
+        SecurityContext context = new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, authorities));
+
+        byte[] bytes = serializer.serialize(context);
+
+        CompactSessionFormat.Principal stored = CompactSessionFormat.readPrincipal(bytes);
+        assertEquals("alice", stored.username());
+        assertEquals(List.of("ROLE_USER"), stored.authorities());
+
+        SecurityContext read = (SecurityContext) serializer.deserialize(bytes);
+        assertEquals("alice", read.getAuthentication().getName());
+        assertEquals(authorities, List.copyOf(read.getAuthentication().getAuthorities()));
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] bytes = serializer.serialize(42L);
+        bytes[1] = (byte) (CompactSessionFormat.VERSION + 1);
+
+        assertThrows(Exception.class, () -> CompactSessionFormat.isCompact(bytes));
+    }
+}
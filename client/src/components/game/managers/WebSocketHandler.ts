@@ -144,6 +144,10 @@ export default class WebSocketHandler {
                 type: 'game_ended',
                 handler: this.handleGameEnded.bind(this)
             },
+            {
+                type: 'coins_awarded',
+                handler: this.handleCoinsAwarded.bind(this)
+            },
             {
                 type: 'time_remaining',
                 handler: this.handleTimeRemaining.bind(this)
@@ -387,6 +391,10 @@ export default class WebSocketHandler {
         eventBus.emit('game_ended', data);
     }
 
+    private handleCoinsAwarded(data: any): void {
+        eventBus.emit('coins_awarded', data);
+    }
+
     private handleConnectionFailed(data: any): void {
         console.error('Connection failed:', data);
 
@@ -421,8 +429,9 @@ export default class WebSocketHandler {
     }
 
     private handlePlayerSkinChanged(data: any): void {
-        // Update the skin of the player who changed it
-        if (data.username && data.username !== this.username && data.skin) {
+        // Update the skin of the player who changed it (includes the local player once the
+        // server has resolved the skin selected in the shop)
+        if (data.username && data.skin) {
 
             // Check if the player exists
             if (this.playerManager.hasPlayer(data.username)) {
@@ -1,4 +1,4 @@
-import {getWsBaseUrl} from '../../utils/apiBaseUrl';
+import {getApiBaseUrl, getGatewayBaseUrl, getWsBaseUrl} from '../../utils/apiBaseUrl';
 
 export interface WebSocketConfig {
     serverUrl?: string;
@@ -25,6 +25,8 @@ export default class WebSocketService {
     private heartbeatInterval: ReturnType<typeof setInterval> | null = null;
     private gameState: string = 'WAITING';
     private isShuttingDown: boolean = false;
+    private ticketRequest: Promise<void> | null = null;
+    private directFailed: boolean = false;
 
     public static getInstance(): WebSocketService {
         if (!WebSocketService.instance) {
@@ -73,7 +75,7 @@ export default class WebSocketService {
             this.reconnectTimer = null;
         }
 
-        if (this.socket && (this.socket.readyState === WebSocket.OPEN || this.socket.readyState === WebSocket.CONNECTING)) {
+        if (this.ticketRequest || (this.socket && (this.socket.readyState === WebSocket.OPEN || this.socket.readyState === WebSocket.CONNECTING))) {
             console.log('WebSocket already connected or connecting');
             return;
         }
@@ -86,17 +88,78 @@ export default class WebSocketService {
         const selectedMap = mapKey ?? this.getSelectedMapFromStorage() ?? this.currentMap;
         this.currentMap = selectedMap;
 
-        const urlToUse = serverUrl ?? this.serverUrl;
-        this.url = `${urlToUse}?token=${encodeURIComponent(this.username)}&map=${encodeURIComponent(selectedMap)}`;
+        // The game server only accepts a short-lived ticket from auth, fetch a fresh one per attempt
+        this.ticketRequest = this.resolveConnection(serverUrl, selectedMap)
+            .then(({url, ticket, direct}) => this.openSocket(url, ticket, selectedMap, direct))
+            .catch(error => {
+                console.error('Error fetching game ticket:', error);
+                this.handleReconnect();
+            })
+            .finally(() => {
+                this.ticketRequest = null;
+            });
+    }
+
+    /**
+     * Asks the gateway for the game server that owns the room, so frames go to it directly. Falls
+     * back to the proxied route if the gateway does not route directly or a direct socket failed.
+     */
+    private async resolveConnection(serverUrl: string | undefined, selectedMap: string): Promise<{ url: string; ticket: string; direct: boolean }> {
+        if (!serverUrl && !this.directFailed) {
+            try {
+                const response = await fetch(`${getGatewayBaseUrl()}/api/game/route?map=${encodeURIComponent(selectedMap)}`, {
+                    method: 'POST',
+                    credentials: 'include'
+                });
+
+                if (response.ok) {
+                    const route = await response.json();
+                    if (route.mode === 'direct' && route.url && route.ticket) {
+                        return {url: route.url, ticket: route.ticket, direct: true};
+                    }
+                }
+            } catch (error) {
+                console.warn('Could not resolve game server, using the gateway:', error);
+            }
+        }
+
+        return {url: serverUrl ?? this.serverUrl, ticket: await this.fetchGameTicket(), direct: false};
+    }
 
-        console.log(`Attempting WebSocket connection to: ${this.url}`);
+    private async fetchGameTicket(): Promise<string> {
+        const response = await fetch(`${getApiBaseUrl()}/game-ticket`, {
+            method: 'POST',
+            credentials: 'include'
+        });
+
+        if (!response.ok) {
+            throw new Error(`Game ticket request failed with status ${response.status}`);
+        }
+
+        const data = await response.json();
+        return data.ticket;
+    }
+
+    private openSocket(urlToUse: string, ticket: string, selectedMap: string, direct: boolean): void {
+        if (this.isShuttingDown) {
+            console.log('Service is shutting down, not opening WebSocket');
+            return;
+        }
+
+        this.url = `${urlToUse}?ticket=${encodeURIComponent(ticket)}&map=${encodeURIComponent(selectedMap)}`;
+
+        console.log(`Attempting ${direct ? 'direct' : 'proxied'} WebSocket connection to: ${urlToUse} on map: ${selectedMap}`);
 
         try {
+            let opened = false;
             this.socket = new WebSocket(this.url);
 
             this.connectionTimeout = setTimeout(() => {
                 if (this.socket && this.socket.readyState !== WebSocket.OPEN) {
                     console.warn('WebSocket connection timeout');
+                    if (direct) {
+                        this.directFailed = true;
+                    }
                     this.socket.close();
                     this.handleReconnect();
                 }
@@ -104,6 +167,7 @@ export default class WebSocketService {
 
             this.socket.onopen = () => {
                 console.log('WebSocket connection opened successfully');
+                opened = true;
                 this.isConnected = true;
                 this.reconnectAttempts = 0;
 
@@ -124,6 +188,12 @@ export default class WebSocketService {
                 this.isConnected = false;
                 this.stopHeartbeat();
 
+                // A game server that cannot be reached directly is reached through the gateway from now on
+                if (direct && !opened) {
+                    console.warn('Direct WebSocket connection failed, falling back to the gateway');
+                    this.directFailed = true;
+                }
+
                 console.log('WebSocket closed:', event.code, event.reason);
 
                 if (this.connectionTimeout) {
@@ -171,6 +241,11 @@ export default class WebSocketService {
             };
         } catch (error) {
             console.error('Error creating WebSocket connection:', error);
+            // e.g. a SecurityError for a ws:// node address on an https page
+            if (direct) {
+                console.warn('Direct WebSocket connection failed, falling back to the gateway');
+                this.directFailed = true;
+            }
             this.handleReconnect();
         }
     }
@@ -26,6 +26,15 @@ interface GameStats {
 interface GameEndData {
     reason: string;
     stats: GameStats;
+    coinsStatus?: 'pending' | 'settled';
+}
+
+interface CoinsAwardedData {
+    awards: Record<string, {
+        coinsAwarded: number;
+        totalCoins?: number;
+        success: boolean;
+    }>;
 }
 
 interface GameScoreboardProps {
@@ -46,6 +55,21 @@ const GameScoreboard: React.FC<GameScoreboardProps> = ({username}) => {
             eventBus.emit('stopBackgroundMusic');
         };
 
+        // Coins are awarded after the results are shown, update the rankings once they settle
+        const handleCoinsAwarded = (data: CoinsAwardedData) => {
+            setGameEndData(prev => prev && {
+                ...prev,
+                coinsStatus: 'settled',
+                stats: {
+                    ...prev.stats,
+                    rankings: prev.stats.rankings.map(ranking => {
+                        const award = data.awards[ranking.playerId];
+                        return award ? {...ranking, coinsAwarded: award.coinsAwarded} : ranking;
+                    })
+                }
+            });
+        };
+
         const handleGameStarted = () => {
             setIsVisible(false);
             setGameEndData(null);
@@ -54,10 +78,12 @@ const GameScoreboard: React.FC<GameScoreboardProps> = ({username}) => {
 
         // Register event handlers
         eventBus.on('game_ended', handleGameEnded);
+        eventBus.on('coins_awarded', handleCoinsAwarded);
         eventBus.on('game_started', handleGameStarted);
 
         return () => {
             eventBus.off('game_ended', handleGameEnded);
+            eventBus.off('coins_awarded', handleCoinsAwarded);
             eventBus.off('game_started', handleGameStarted);
         };
     }, []);
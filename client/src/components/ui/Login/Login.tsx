@@ -1,4 +1,4 @@
-import {useRef, useState} from 'react';
+import {useEffect, useRef, useState} from 'react';
 import './Login.css'
 import useHoverSound from '../../../hooks/useHoverSound';
 import {getApiBaseUrl} from '../../../utils/apiBaseUrl';
@@ -20,8 +20,50 @@ function Login({onAuthSuccess}: AuthFormProps) {
     const [successMessage, setSuccessMessage] = useState('');
     const [isValidating, setIsValidating] = useState(false);
     const [isSubmitting, setIsSubmitting] = useState(false);
+    const [availabilityError, setAvailabilityError] = useState('');
     const playHoverSound = useHoverSound();
 
+    // Check username and email while registering, debounced so only a pause in typing sends a request
+    useEffect(() => {
+        const username = formData.username.trim();
+        const email = formData.email.trim();
+
+        if (isLogin || (!username && !email)) {
+            setAvailabilityError('');
+            return;
+        }
+
+        const controller = new AbortController();
+        const timer = setTimeout(async () => {
+            try {
+                const params = new URLSearchParams();
+                if (username) params.set('username', username);
+                if (email) params.set('email', email);
+
+                const response = await fetch(`${getApiBaseUrl()}/availability?${params}`, {
+                    signal: controller.signal
+                });
+                if (!response.ok) return;
+
+                const availability = await response.json();
+                if (availability.username === false) {
+                    setAvailabilityError('Username is already in use');
+                } else if (availability.email === false) {
+                    setAvailabilityError('Email is already in use');
+                } else {
+                    setAvailabilityError('');
+                }
+            } catch (err) {
+                // Aborted or unreachable, the server checks again on submit
+            }
+        }, 300);
+
+        return () => {
+            clearTimeout(timer);
+            controller.abort();
+        };
+    }, [formData.username, formData.email, isLogin]);
+
     const handleChange = (e: {
         target: {
             name: any;
@@ -216,10 +258,10 @@ function Login({onAuthSuccess}: AuthFormProps) {
                     />
                 </div>
 
-                <div className={`login__error ${!error ? 'login__error--hidden' : ''}`}
+                <div className={`login__error ${!(error || availabilityError) ? 'login__error--hidden' : ''}`}
                      role="alert"
                      aria-live="assertive">
-                    {error}
+                    {error || availabilityError}
                 </div>
                 {successMessage && (
                     <div className="login__success" role="status" aria-live="polite">
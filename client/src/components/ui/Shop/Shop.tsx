@@ -2,7 +2,7 @@ import React, {useEffect, useRef, useState} from 'react';
 import eventBus from '../../../utils/eventBus.ts';
 import './Shop.css';
 import useHoverSound from '../../../hooks/useHoverSound.ts';
-import {getShopBaseUrl, getWalletBaseUrl} from '../../../utils/apiBaseUrl';
+import {getGatewayBaseUrl, getShopBaseUrl} from '../../../utils/apiBaseUrl';
 
 interface ShopItem {
     itemId: string;
@@ -73,32 +73,30 @@ const Shop: React.FC<ShopProps> = ({
     const fetchShopData = async () => {
         setLoading(true);
         try {
-            // Fetch shop items
-            const itemsResponse = await fetch(`${getShopBaseUrl()}/api/shop/items?username=${username}`, {
+            // Items, coins and preferences in one request, parts that could not be loaded are missing
+            const menuResponse = await fetch(`${getGatewayBaseUrl()}/api/menu`, {
                 credentials: 'include'
             });
-            const itemsData = await itemsResponse.json();
-            setItems(itemsData);
+            const menuData = await menuResponse.json();
 
-            // Fetch player coins
-            const coinsResponse = await fetch(`${getWalletBaseUrl()}/api/wallet/${username}/coins`, {
-                credentials: 'include'
-            });
-            const coinsData = await coinsResponse.json();
-            // Handle both {coins: number} and direct number responses
-            const coins = typeof coinsData === 'object' && coinsData.coins !== undefined
-                ? coinsData.coins
-                : typeof coinsData === 'number'
-                    ? coinsData
-                    : 0;
-            setPlayerCoins(coins);
+            if (menuData.items) {
+                setItems(menuData.items);
+            }
 
-            // Fetch player preferences
-            const preferencesResponse = await fetch(`${getShopBaseUrl()}/api/shop/preferences/${username}`, {
-                credentials: 'include'
-            });
-            const preferencesData = await preferencesResponse.json();
-            setSelectedSkin(preferencesData.selectedSkin);
+            if (menuData.wallet) {
+                // Handle both {coins: number} and direct number responses
+                const coinsData = menuData.wallet;
+                const coins = typeof coinsData === 'object' && coinsData.coins !== undefined
+                    ? coinsData.coins
+                    : typeof coinsData === 'number'
+                        ? coinsData
+                        : 0;
+                setPlayerCoins(coins);
+            }
+
+            if (menuData.preferences) {
+                setSelectedSkin(menuData.preferences.selectedSkin);
+            }
         } catch (error) {
             console.error('Error fetching shop data:', error);
         } finally {
@@ -22,6 +22,14 @@ export function getWalletBaseUrl(): string {
     return 'http://localhost:8083';
 }
 
+// Utility to get the correct Gateway base URL, for endpoints the gateway answers itself
+export function getGatewayBaseUrl(): string {
+    if (import.meta.env.PROD) {
+        return 'https://omni.jware.at';
+    }
+    return 'http://localhost:8081';
+}
+
 // Utility to get the correct WebSocket base URL
 export function getWsBaseUrl(): string {
     if (import.meta.env.PROD) {
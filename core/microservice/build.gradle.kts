@@ -0,0 +1,32 @@
+plugins {
+    `java-library`
+    id("io.spring.dependency-management") version "1.1.7"
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.4.5")
+    }
+}
+
+dependencies {
+    api("org.springframework:spring-web")
+    api("com.fasterxml.jackson.core:jackson-databind")
+    implementation("org.springframework.boot:spring-boot-autoconfigure")
+    // Event streams are only set up in services that bring Redis themselves
+    compileOnly("org.springframework.data:spring-data-redis")
+    // Servlet services register the trusted user check themselves
+    compileOnly("org.springframework:spring-webmvc")
+    compileOnly("jakarta.servlet:jakarta.servlet-api")
+    implementation("org.slf4j:slf4j-api")
+}
@@ -0,0 +1,103 @@
+package fhv.omni.core.microservice.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Size-bounded LRU cache whose entries expire after a TTL, for values loaded from another store.
+ * <p>
+ * Invalidations bump a version per stripe of keys. A load reads the {@link #version} before it
+ * starts and only populates the cache through {@link #putIfUnchanged} if no invalidation for the
+ * same stripe happened meanwhile, so an old value can never overwrite a newer invalidation.
+ * Values that were read elsewhere at a known time, such as claims of a signed ticket, can also be
+ * checked against {@link #invalidatedSince}. Changes the owner does not hear about are picked up
+ * once the entry expires.
+ */
+public class VersionedLruCache<K, V> {
+    private static final int STRIPES = 64;
+
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries;
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    // Wall-clock time of the last invalidation per stripe
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(STRIPES);
+
+    public VersionedLruCache(long ttlMillis, int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Version to pass to {@link #putIfUnchanged}, read before loading the value.
+     */
+    public long version(K key) {
+        return versions.get(stripe(key));
+    }
+
+    public synchronized void putIfUnchanged(K key, V value, long version) {
+        putIfUnchanged(key, value, version, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #putIfUnchanged(Object, Object, long)} for a value that is known to be current
+     * until {@code expiresAt}, but for no longer than the TTL.
+     */
+    public synchronized void putIfUnchanged(K key, V value, long version, long expiresAt) {
+        if (versions.get(stripe(key)) == version) {
+            entries.put(key, new Entry<>(value, Math.min(expiresAt, System.currentTimeMillis() + ttlMillis)));
+        }
+    }
+
+    /**
+     * Whether the key may have been invalidated at or after {@code timeMillis}. Keys sharing a
+     * stripe are not told apart, so this errs towards true.
+     */
+    public boolean invalidatedSince(K key, long timeMillis) {
+        return invalidatedAt.get(stripe(key)) >= timeMillis;
+    }
+
+    public synchronized void invalidate(K key) {
+        int stripe = stripe(key);
+        versions.incrementAndGet(stripe);
+        invalidatedAt.set(stripe, System.currentTimeMillis());
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            versions.incrementAndGet(i);
+            invalidatedAt.set(i, now);
+        }
+        entries.clear();
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
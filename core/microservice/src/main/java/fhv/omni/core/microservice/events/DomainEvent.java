@@ -0,0 +1,21 @@
+package fhv.omni.core.microservice.events;
+
+import java.time.Instant;
+
+/**
+ * Event as it is stored in an outbox and written to the event stream.
+ *
+ * @param id         Unique id assigned by the producer, consumers use it to detect redeliveries
+ * @param type       One of {@link EventTypes}
+ * @param key        Entity the event is about, e.g. the username
+ * @param payload    Event body as JSON
+ * @param occurredAt Time the event was recorded by the producer
+ */
+public record DomainEvent(
+        String id,
+        String type,
+        String key,
+        String payload,
+        Instant occurredAt
+) {
+}
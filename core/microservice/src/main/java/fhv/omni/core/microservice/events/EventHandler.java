@@ -0,0 +1,31 @@
+package fhv.omni.core.microservice.events;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Consumer of one event type. Beans of this type are picked up by the {@link EventStreamConsumer}.
+ * Events are delivered at least once, so handlers must tolerate redeliveries. If
+ * {@link #handle} throws, none of the events of the batch are acknowledged and the batch is
+ * delivered again later.
+ */
+public interface EventHandler {
+
+    String eventType();
+
+    void handle(List<DomainEvent> events);
+
+    static EventHandler of(String eventType, Consumer<List<DomainEvent>> handler) {
+        return new EventHandler() {
+            @Override
+            public String eventType() {
+                return eventType;
+            }
+
+            @Override
+            public void handle(List<DomainEvent> events) {
+                handler.accept(events);
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package fhv.omni.core.microservice.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Records events in the service's {@link OutboxStore}; the {@link OutboxRelay} writes them to
+ * the event stream. Publishing never waits for Redis or for consumers. When events are
+ * disabled, published events are dropped.
+ */
+public class EventPublisher {
+    private final Logger logger = LoggerFactory.getLogger(EventPublisher.class);
+    private final OutboxStore outboxStore;
+    private final ObjectMapper objectMapper;
+
+    public EventPublisher(OutboxStore outboxStore, ObjectMapper objectMapper) {
+        this.outboxStore = outboxStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return outboxStore != null;
+    }
+
+    /**
+     * Appends an event to the outbox. Called within a transaction, the event is only stored
+     * if the transaction commits.
+     *
+     * @param payload Serialized to JSON
+     */
+    public void publish(String type, String key, Object payload) {
+        if (outboxStore == null) {
+            logger.debug("Events are disabled, dropping {} for {}", type, key);
+            return;
+        }
+
+        try {
+            outboxStore.append(new DomainEvent(
+                    UUID.randomUUID().toString(), type, key, objectMapper.writeValueAsString(payload), Instant.now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + type + " event", e);
+        }
+    }
+}
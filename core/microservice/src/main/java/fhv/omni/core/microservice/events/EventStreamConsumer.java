@@ -0,0 +1,189 @@
+package fhv.omni.core.microservice.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the streams of all registered {@link EventHandler}s as one member of the service's
+ * consumer group. Each read fetches up to {@code batchSize} events across all streams and
+ * blocks for at most {@code blockTimeout}; a handler gets all events of its type from one read
+ * in a single call, and they are acknowledged together once it returns.
+ * Failed batches stay pending and are delivered again every {@code pendingRetryInterval}.
+ */
+public class EventStreamConsumer implements SmartLifecycle {
+    private static final long ERROR_BACKOFF_MS = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(EventStreamConsumer.class);
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, EventHandler> handlersByStream = new LinkedHashMap<>();
+    private final EventsProperties properties;
+    private final Consumer consumer;
+    private final Set<String> initializedStreams = new HashSet<>();
+    private volatile boolean running;
+    private Thread thread;
+    private long nextPendingRead;
+
+    public EventStreamConsumer(StringRedisTemplate redisTemplate, List<EventHandler> handlers,
+                               EventsProperties properties, String consumerGroup, String consumerName) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.consumer = Consumer.from(consumerGroup, consumerName);
+
+        for (EventHandler handler : handlers) {
+            if (handlersByStream.putIfAbsent(properties.streamKey(handler.eventType()), handler) != null) {
+                throw new IllegalStateException("More than one handler for event type " + handler.eventType());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (handlersByStream.isEmpty()) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::run, "EventStreamConsumer");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Consuming {} as {}", handlersByStream.keySet(), consumer);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+
+        try {
+            // A read in progress returns after at most the block timeout
+            thread.join(properties.blockTimeout().toMillis() + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                createMissingGroups();
+
+                // Own unacknowledged events first, e.g. after a restart or a failed handler
+                boolean readPending = System.currentTimeMillis() >= nextPendingRead;
+                List<MapRecord<String, Object, Object>> records = read(readPending);
+                if (readPending) {
+                    nextPendingRead = System.currentTimeMillis() + properties.pendingRetryInterval().toMillis();
+                    if (records.isEmpty()) {
+                        records = read(false);
+                    }
+                }
+
+                dispatch(records);
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.error("Error reading event streams: {}", e.getMessage());
+                sleep();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> read(boolean pending) {
+        StreamReadOptions options = StreamReadOptions.empty().count(properties.batchSize());
+        if (!pending) {
+            options = options.block(properties.blockTimeout());
+        }
+
+        ReadOffset offset = pending ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+        StreamOffset<String>[] streams = handlersByStream.keySet().stream()
+                .map(stream -> StreamOffset.create(stream, offset))
+                .toArray(StreamOffset[]::new);
+
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(consumer, options, streams);
+        return records != null ? records : List.of();
+    }
+
+    private void dispatch(List<MapRecord<String, Object, Object>> records) {
+        Map<String, List<MapRecord<String, Object, Object>>> recordsByStream = new LinkedHashMap<>();
+        records.forEach(record -> recordsByStream.computeIfAbsent(record.getStream(), key -> new ArrayList<>()).add(record));
+
+        recordsByStream.forEach((stream, streamRecords) -> {
+            EventHandler handler = handlersByStream.get(stream);
+            try {
+                handler.handle(streamRecords.stream().map(EventStreamConsumer::toEvent).toList());
+            } catch (Exception e) {
+                logger.error("Handler for {} failed on {} events, they will be delivered again: {}",
+                        handler.eventType(), streamRecords.size(), e.getMessage());
+                return;
+            }
+
+            RecordId[] ids = streamRecords.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+            redisTemplate.opsForStream().acknowledge(stream, consumer.getGroup(), ids);
+        });
+    }
+
+    private void createMissingGroups() {
+        for (String stream : handlersByStream.keySet()) {
+            if (initializedStreams.contains(stream)) {
+                continue;
+            }
+
+            try {
+                redisTemplate.execute(connection -> connection.streamCommands().xGroupCreate(
+                        stream.getBytes(), consumer.getGroup(), ReadOffset.from(properties.startOffset()), true), true);
+            } catch (RedisSystemException e) {
+                if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                    throw e;
+                }
+                // Group already exists
+            }
+            initializedStreams.add(stream);
+        }
+    }
+
+    private static DomainEvent toEvent(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> fields = record.getValue();
+        return new DomainEvent(
+                (String) fields.get("id"),
+                (String) fields.get("type"),
+                (String) fields.get("key"),
+                (String) fields.get("payload"),
+                Instant.parse((String) fields.get("occurredAt"))
+        );
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(ERROR_BACKOFF_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package fhv.omni.core.microservice.events;
+
+/**
+ * Types of the events exchanged between the services. Every type is published to its own stream.
+ */
+public final class EventTypes {
+    // Published by gameLogic when a match ends, carries the coin rewards
+    public static final String MATCH_COMPLETED = "match_completed";
+    // Published by the wallet after coins have been credited
+    public static final String COINS_CREDITED = "coins_credited";
+    // Published by the shop after an item has been unlocked
+    public static final String ITEM_UNLOCKED = "item_unlocked";
+    // Published by the shop after a player selected another skin
+    public static final String PREFERENCE_CHANGED = "preference_changed";
+
+    private EventTypes() {
+    }
+}
@@ -0,0 +1,69 @@
+package fhv.omni.core.microservice.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@AutoConfiguration(after = {RedisAutoConfiguration.class, JacksonAutoConfiguration.class})
+@EnableConfigurationProperties(EventsProperties.class)
+public class EventsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EventPublisher eventPublisher(ObjectProvider<OutboxStore> outboxStore,
+                                         ObjectProvider<ObjectMapper> objectMapper,
+                                         EventsProperties properties) {
+        return new EventPublisher(properties.enabled() ? outboxStore.getIfAvailable() : null,
+                objectMapper.getIfAvailable(ObjectMapper::new));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(StringRedisTemplate.class)
+    @ConditionalOnBean(StringRedisTemplate.class)
+    @ConditionalOnProperty(prefix = "omni.events", name = "enabled", havingValue = "true")
+    static class RedisStreamsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(OutboxStore.class)
+        public OutboxRelay outboxRelay(StringRedisTemplate redisTemplate, OutboxStore outboxStore,
+                                       EventsProperties properties) {
+            return new OutboxRelay(redisTemplate, outboxStore, properties);
+        }
+
+        @Bean
+        public EventStreamConsumer eventStreamConsumer(StringRedisTemplate redisTemplate,
+                                                       ObjectProvider<EventHandler> handlers,
+                                                       EventsProperties properties,
+                                                       Environment environment) {
+            String consumerGroup = properties.consumerGroup() != null
+                    ? properties.consumerGroup()
+                    : environment.getRequiredProperty("spring.application.name");
+            String consumerName = properties.consumerName() != null ? properties.consumerName() : hostName();
+
+            return new EventStreamConsumer(redisTemplate, handlers.orderedStream().toList(), properties,
+                    consumerGroup, consumerName);
+        }
+
+        private static String hostName() {
+            try {
+                return InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                return "localhost";
+            }
+        }
+    }
+}
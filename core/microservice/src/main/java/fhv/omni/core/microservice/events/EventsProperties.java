@@ -0,0 +1,42 @@
+package fhv.omni.core.microservice.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the event streams shared between the services.
+ *
+ * @param enabled              Whether events are published and consumed at all
+ * @param streamPrefix         Prefix of the stream keys, followed by the event type
+ * @param consumerGroup        Consumer group of this service, defaults to {@code spring.application.name}.
+ *                             Instances sharing a group split the events between them
+ * @param consumerName         Name of this instance within the group, defaults to the host name.
+ *                             Must be stable across restarts so pending events are picked up again
+ * @param startOffset          Position a newly created group starts reading from, {@code 0} for the
+ *                             retained history or {@code $} for new events only
+ * @param batchSize            Maximum number of events read or relayed at once
+ * @param blockTimeout         Maximum time a read waits for new events
+ * @param pendingRetryInterval Interval in which unacknowledged events are delivered again
+ * @param relayInterval        Interval in which the outbox is written to the streams
+ * @param maxStreamLength      Approximate number of events kept per stream
+ */
+@ConfigurationProperties("omni.events")
+public record EventsProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("omni:events:") String streamPrefix,
+        String consumerGroup,
+        String consumerName,
+        @DefaultValue("0") String startOffset,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("2s") Duration blockTimeout,
+        @DefaultValue("30s") Duration pendingRetryInterval,
+        @DefaultValue("500ms") Duration relayInterval,
+        @DefaultValue("100000") long maxStreamLength
+) {
+
+    public String streamKey(String eventType) {
+        return streamPrefix + eventType;
+    }
+}
@@ -0,0 +1,14 @@
+package fhv.omni.core.microservice.events;
+
+/**
+ * Redis pub/sub channels on which services announce changes that invalidate caches held by
+ * other services. Unlike the event streams every subscribed instance receives every message,
+ * and nothing is delivered to instances that are not connected at the time.
+ */
+public final class InvalidationChannels {
+    // Message is the username whose selected skin or unlocked items changed in the shop
+    public static final String ENTITLEMENTS = "omni:invalidate:entitlements";
+
+    private InvalidationChannels() {
+    }
+}
@@ -0,0 +1,111 @@
+package fhv.omni.core.microservice.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves events from the {@link OutboxStore} to their Redis streams. An event is
+ * only marked as published after Redis accepted it, so it may be written twice if the service
+ * stops in between or several instances relay the same outbox; consumers deduplicate by id.
+ */
+public class OutboxRelay implements SmartLifecycle {
+    // Bounds a single run so a steady stream of events cannot keep it going forever
+    private static final int MAX_BATCHES_PER_RUN = 10;
+
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private final StringRedisTemplate redisTemplate;
+    private final OutboxStore outboxStore;
+    private final EventsProperties properties;
+    private ScheduledExecutorService executor;
+
+    public OutboxRelay(StringRedisTemplate redisTemplate, OutboxStore outboxStore, EventsProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.outboxStore = outboxStore;
+        this.properties = properties;
+    }
+
+    public void relayPending() {
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+                List<DomainEvent> events = outboxStore.findUnpublished(properties.batchSize());
+                if (events.isEmpty()) {
+                    return;
+                }
+
+                List<String> publishedIds = new ArrayList<>();
+                try {
+                    for (DomainEvent event : events) {
+                        write(event);
+                        publishedIds.add(event.id());
+                    }
+                } finally {
+                    if (!publishedIds.isEmpty()) {
+                        outboxStore.markPublished(publishedIds);
+                    }
+                }
+
+                logger.debug("Relayed {} events to the event streams", publishedIds.size());
+            }
+        } catch (Exception e) {
+            logger.error("Error relaying outbox events: {}", e.getMessage());
+        }
+    }
+
+    private void write(DomainEvent event) {
+        MapRecord<String, String, String> record = MapRecord.create(properties.streamKey(event.type()), Map.of(
+                "id", event.id(),
+                "type", event.type(),
+                "key", event.key() != null ? event.key() : "",
+                "payload", event.payload(),
+                "occurredAt", event.occurredAt().toString()
+        ));
+
+        redisTemplate.opsForStream().add(record, XAddOptions.maxlen(properties.maxStreamLength()).approximateTrimming(true));
+    }
+
+    @Override
+    public synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "OutboxRelay");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long intervalMs = properties.relayInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::relayPending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Flush what was recorded while shutting down
+        relayPending();
+        executor = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+}
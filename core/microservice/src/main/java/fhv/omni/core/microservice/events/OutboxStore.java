@@ -0,0 +1,21 @@
+package fhv.omni.core.microservice.events;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage for events that have been recorded but not yet written to the event stream.
+ * Services with a database append within their business transaction, so an event is
+ * stored if and only if the change it describes is committed.
+ */
+public interface OutboxStore {
+
+    void append(DomainEvent event);
+
+    /**
+     * @return Up to {@code limit} unpublished events, oldest first
+     */
+    List<DomainEvent> findUnpublished(int limit);
+
+    void markPublished(Collection<String> eventIds);
+}
@@ -0,0 +1,55 @@
+package fhv.omni.core.microservice.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Retries calls to other services on timeouts, connection failures and server errors.
+ * Client errors are not retried. Only use it for reads or for mutations sent with an
+ * {@value #IDEMPOTENCY_KEY_HEADER} header, which the target service applies at most once.
+ */
+public final class IdempotentRetry {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentRetry.class);
+
+    private IdempotentRetry() {
+    }
+
+    /**
+     * @param maxAttempts Total number of attempts, including the first one
+     * @param backoff     Delay before the first retry, doubled for every further retry
+     */
+    public static <T> T call(Supplier<T> call, int maxAttempts, Duration backoff) {
+        long delayMillis = backoff.toMillis();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RestClientResponseException e) {
+                if (!e.getStatusCode().is5xxServerError() || attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("Service call failed with HTTP {}, retrying (attempt {}/{})", e.getStatusCode(), attempt, maxAttempts);
+            } catch (ResourceAccessException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("Service call failed: {}, retrying (attempt {}/{})", e.getMessage(), attempt, maxAttempts);
+            }
+
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while retrying service call", e);
+            }
+            delayMillis *= 2;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package fhv.omni.core.microservice.http;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.client.RestClient;
+
+@AutoConfiguration(after = RestClientAutoConfiguration.class)
+@EnableConfigurationProperties(ServiceClientProperties.class)
+public class ServiceClientAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceClientFactory serviceClientFactory(ObjectProvider<RestClient.Builder> restClientBuilder,
+                                                     ServiceClientProperties properties) {
+        return new ServiceClientFactory(restClientBuilder.getIfAvailable(RestClient::builder), properties);
+    }
+}
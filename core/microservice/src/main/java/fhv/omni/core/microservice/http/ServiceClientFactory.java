@@ -0,0 +1,52 @@
+package fhv.omni.core.microservice.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+
+/**
+ * Creates {@link RestClient}s for calls between Omni services.
+ * <p>
+ * All clients share one pooled keep-alive {@link HttpClient} with connect and read timeouts.
+ * Responses are deserialized directly from the response stream into typed DTOs. When the
+ * builder comes from Spring Boot, every call is recorded in the {@code http.client.requests}
+ * metric, tagged with the URI template of the endpoint.
+ */
+public class ServiceClientFactory {
+    private final Logger logger = LoggerFactory.getLogger(ServiceClientFactory.class);
+    private final RestClient.Builder restClientBuilder;
+    private final ServiceClientProperties properties;
+    private final HttpClient httpClient;
+
+    public ServiceClientFactory(RestClient.Builder restClientBuilder, ServiceClientProperties properties) {
+        this.restClientBuilder = restClientBuilder;
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .version(properties.version())
+                .connectTimeout(properties.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        logger.info("Service HTTP client initialized ({}, connect timeout {}, read timeout {})",
+                properties.version(), properties.connectTimeout(), properties.readTimeout());
+    }
+
+    /**
+     * Creates a client for a single service. Use URI templates such as
+     * {@code "/api/wallet/{username}/coins"} so metrics are grouped per endpoint.
+     *
+     * @param baseUrl Base URL of the target service
+     */
+    public RestClient create(String baseUrl) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.readTimeout());
+
+        return restClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package fhv.omni.core.microservice.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Connection settings shared by all clients created through {@link ServiceClientFactory}.
+ *
+ * @param connectTimeout Maximum time to establish a new connection to another service
+ * @param readTimeout    Maximum time to wait for a response once the request has been sent
+ * @param version        HTTP version used for calls between services
+ */
+@ConfigurationProperties("omni.http-client")
+public record ServiceClientProperties(
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("5s") Duration readTimeout,
+        @DefaultValue("HTTP_1_1") HttpClient.Version version
+) {
+}
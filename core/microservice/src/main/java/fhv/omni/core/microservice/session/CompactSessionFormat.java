@@ -0,0 +1,141 @@
+package fhv.omni.core.microservice.session;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary layout of the session values auth writes to Redis and the gateway reads back.
+ * <p>
+ * Layout: {@code MAGIC, VERSION, tag, payload}. Strings are raw UTF-8, numbers big-endian and
+ * a security context is the username followed by a count-prefixed list of authorities.
+ * Values that do not start with {@link #MAGIC} are in the previous JSON form, which callers
+ * handle themselves.
+ */
+public final class CompactSessionFormat {
+    // Never the first byte of a JSON document, so both formats can share a key space
+    public static final byte MAGIC = (byte) 0xA7;
+    public static final byte VERSION = 1;
+
+    public static final byte TAG_STRING = 1;
+    public static final byte TAG_LONG = 2;
+    public static final byte TAG_INT = 3;
+    public static final byte TAG_SECURITY_CONTEXT = 4;
+
+    private static final int HEADER_LENGTH = 3;
+
+    private CompactSessionFormat() {
+    }
+
+    /**
+     * Username and authority names of a stored security context.
+     */
+    public record Principal(String username, List<String> authorities) {
+    }
+
+    /**
+     * @return Whether the value is in the compact layout, false for JSON
+     * @throws IOException If the value is compact but written in an unknown version
+     */
+    public static boolean isCompact(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MAGIC) {
+            return false;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] != VERSION) {
+            throw new IOException("Unsupported session value version: " + (bytes.length > 1 ? bytes[1] : -1));
+        }
+        return true;
+    }
+
+    /**
+     * Tag of a value {@link #isCompact} accepted.
+     */
+    public static byte tag(byte[] bytes) {
+        return bytes[2];
+    }
+
+    public static byte[] writeString(String value) {
+        return withHeader(TAG_STRING, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] writeLong(long value) {
+        return withHeader(TAG_LONG, ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+    }
+
+    public static byte[] writeInt(int value) {
+        return withHeader(TAG_INT, ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+    }
+
+    public static byte[] writePrincipal(String username, Collection<String> authorities) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(username);
+            out.writeShort(authorities.size());
+            for (String authority : authorities) {
+                out.writeUTF(authority);
+            }
+        }
+
+        return withHeader(TAG_SECURITY_CONTEXT, bytes.toByteArray());
+    }
+
+    public static String readString(byte[] bytes) throws IOException {
+        expectTag(bytes, TAG_STRING);
+        return new String(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a number stored either as long or as int.
+     */
+    public static long readLong(byte[] bytes) throws IOException {
+        ByteBuffer payload = payload(bytes);
+        return switch (tag(bytes)) {
+            case TAG_LONG -> payload.getLong();
+            case TAG_INT -> payload.getInt();
+            default -> throw new IOException("Expected a number, got tag " + tag(bytes));
+        };
+    }
+
+    public static int readInt(byte[] bytes) throws IOException {
+        expectTag(bytes, TAG_INT);
+        return payload(bytes).getInt();
+    }
+
+    public static Principal readPrincipal(byte[] bytes) throws IOException {
+        expectTag(bytes, TAG_SECURITY_CONTEXT);
+
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH))) {
+            String username = in.readUTF();
+            int count = in.readUnsignedShort();
+            List<String> authorities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                authorities.add(in.readUTF());
+            }
+            return new Principal(username, authorities);
+        }
+    }
+
+    private static void expectTag(byte[] bytes, byte expected) throws IOException {
+        if (tag(bytes) != expected) {
+            throw new IOException("Expected tag " + expected + ", got tag " + tag(bytes));
+        }
+    }
+
+    private static ByteBuffer payload(byte[] bytes) {
+        return ByteBuffer.wrap(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+    }
+
+    private static byte[] withHeader(byte tag, byte[] payload) {
+        byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+        bytes[0] = MAGIC;
+        bytes[1] = VERSION;
+        bytes[2] = tag;
+        System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,23 @@
+package fhv.omni.core.microservice.ticket;
+
+import java.util.List;
+
+/**
+ * Claims of a game ticket, issued by auth and checked by the game servers when a socket opens.
+ *
+ * @param username  Player the ticket was issued to
+ * @param skin      Selected skin, null if the shop could not be asked
+ * @param maps      Unlocked maps, null if the shop could not be asked
+ * @param expiresAt Expiry in epoch seconds
+ */
+public record GameTicket(
+        String username,
+        String skin,
+        List<String> maps,
+        long expiresAt
+) {
+
+    public boolean hasEntitlements() {
+        return skin != null && maps != null;
+    }
+}
@@ -0,0 +1,29 @@
+package fhv.omni.core.microservice.ticket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Clock;
+
+@AutoConfiguration(after = JacksonAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "omni.game-ticket", name = "secret")
+@EnableConfigurationProperties(GameTicketProperties.class)
+public class GameTicketAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GameTicketCodec gameTicketCodec(GameTicketProperties properties, ObjectProvider<ObjectMapper> objectMapper) {
+        // Anyone holding the secret can forge tickets, so there is no fallback to a known value
+        if (properties.secret() == null || properties.secret().isBlank()) {
+            throw new IllegalStateException("omni.game-ticket.secret is not set, provide it through GAME_TICKET_SECRET");
+        }
+        return new GameTicketCodec(properties.secret(), properties.ttl(),
+                objectMapper.getIfAvailable(ObjectMapper::new), Clock.systemUTC());
+    }
+}
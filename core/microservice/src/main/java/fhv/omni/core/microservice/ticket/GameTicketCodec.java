@@ -0,0 +1,106 @@
+package fhv.omni.core.microservice.ticket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Issues and verifies game tickets of the form {@code base64url(claims json).base64url(HMAC-SHA256)}.
+ * Verification only needs the shared secret, so game servers check tickets without a network call.
+ */
+public class GameTicketCodec {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    public GameTicketCodec(String secret, Duration ttl, ObjectMapper objectMapper, Clock clock) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("Game ticket secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttl = ttl;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public String issue(String username, String skin, List<String> maps) {
+        GameTicket ticket = new GameTicket(username, skin, maps, clock.instant().plus(ttl).getEpochSecond());
+
+        try {
+            String claims = ENCODER.encodeToString(objectMapper.writeValueAsBytes(ticket));
+            return claims + "." + ENCODER.encodeToString(sign(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize game ticket", e);
+        }
+    }
+
+    /**
+     * @return The claims of the ticket, or empty if it is malformed, forged or expired
+     */
+    public Optional<GameTicket> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+
+        int separator = token.indexOf('.');
+        if (separator <= 0 || separator == token.length() - 1) {
+            return Optional.empty();
+        }
+
+        try {
+            String claims = token.substring(0, separator);
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(claims), signature)) {
+                return Optional.empty();
+            }
+
+            GameTicket ticket = objectMapper.readValue(DECODER.decode(claims), GameTicket.class);
+            if (ticket.username() == null || ticket.expiresAt() < clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(ticket);
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String claims) {
+        return macs.get().doFinal(claims.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
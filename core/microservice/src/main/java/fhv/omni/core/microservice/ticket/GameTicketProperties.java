@@ -0,0 +1,17 @@
+package fhv.omni.core.microservice.ticket;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param secret HMAC key shared by auth and the game servers, at least 32 bytes
+ * @param ttl    Lifetime of an issued ticket
+ */
+@ConfigurationProperties("omni.game-ticket")
+public record GameTicketProperties(
+        String secret,
+        @DefaultValue("60s") Duration ttl
+) {
+}
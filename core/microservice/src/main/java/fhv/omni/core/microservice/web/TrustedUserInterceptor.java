@@ -0,0 +1,54 @@
+package fhv.omni.core.microservice.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Rejects requests of a player that act on another player. The gateway strips {@value #USER_HEADER}
+ * from client requests and sets it to the user of the validated session, so a present header is
+ * trusted. Calls between services do not go through the gateway and carry none.
+ * <p>
+ * The target player is taken from the {@code username} path variable or request parameter;
+ * handlers that read it from the body check it with {@link #isOtherUser}.
+ */
+public class TrustedUserInterceptor implements HandlerInterceptor {
+    public static final String USER_HEADER = "X-Omni-User";
+
+    private static final Logger logger = LoggerFactory.getLogger(TrustedUserInterceptor.class);
+    private static final String USERNAME = "username";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        String target = null;
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get(USERNAME) instanceof String username) {
+            target = username;
+        }
+        if (target == null) {
+            target = request.getParameter(USERNAME);
+        }
+
+        if (isOtherUser(request.getHeader(USER_HEADER), target)) {
+            logger.warn("Rejecting {} {} of {} acting on {}", request.getMethod(), request.getRequestURI(),
+                    request.getHeader(USER_HEADER), target);
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param trustedUser Value of {@value #USER_HEADER}, null for calls from other services
+     * @param username    Player the request acts on
+     */
+    public static boolean isOtherUser(String trustedUser, String username) {
+        return trustedUser != null && username != null && !trustedUser.equals(username);
+    }
+}
@@ -0,0 +1,29 @@
+package fhv.omni.gamelogic.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fhv.omni.core.microservice.events.EventHandler;
+import fhv.omni.core.microservice.events.EventTypes;
+import fhv.omni.gamelogic.service.outbox.FileOutboxStore;
+import fhv.omni.gamelogic.service.wallet.CoinService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class EventConfig {
+
+    // gameLogic has no database, events wait in a local journal until they are delivered
+    @Bean(destroyMethod = "close")
+    public FileOutboxStore outboxStore(ObjectMapper objectMapper,
+                                       @Value("${gamelogic.outbox.file:data/outbox.journal}") String file,
+                                       @Value("${gamelogic.outbox.compact-threshold-bytes:1048576}") long compactThresholdBytes) {
+        return new FileOutboxStore(Path.of(file), objectMapper, compactThresholdBytes);
+    }
+
+    @Bean
+    public EventHandler coinsCreditedHandler(CoinService coinService) {
+        return EventHandler.of(EventTypes.COINS_CREDITED, coinService::onCoinsCredited);
+    }
+}
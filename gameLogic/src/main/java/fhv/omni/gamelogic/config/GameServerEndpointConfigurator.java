@@ -1,5 +1,6 @@
 package fhv.omni.gamelogic.config;
 
+import jakarta.websocket.Extension;
 import jakarta.websocket.server.HandshakeRequest;
 import jakarta.websocket.server.ServerEndpointConfig;
 import org.slf4j.Logger;
@@ -10,6 +11,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Component
@@ -17,6 +20,9 @@ public class GameServerEndpointConfigurator extends ServerEndpointConfig.Configu
 
     private static final Logger logger = LoggerFactory.getLogger(GameServerEndpointConfigurator.class);
     private static final AtomicReference<BeanFactory> context = new AtomicReference<>();
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
 
     @Override
     public <T> T getEndpointInstance(Class<T> clazz) throws InstantiationException {
@@ -49,4 +55,70 @@ public class GameServerEndpointConfigurator extends ServerEndpointConfig.Configu
 
         logger.debug("WebSocket handshake completed for endpoint: {} with extended timeout", sec.getPath());
     }
+
+    /**
+     * Drops permessage-deflate when compression is disabled and otherwise adds the no context
+     * takeover parameters the settings ask for to every offer, which Tomcat then answers with.
+     */
+    @Override
+    public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+        List<Extension> negotiated = super.getNegotiatedExtensions(installed, requested);
+        BeanFactory beanFactory = context.get();
+        if (beanFactory == null) {
+            return negotiated;
+        }
+
+        WebSocketCompressionSettings settings = beanFactory.getBean(WebSocketCompressionSettings.class);
+        List<Extension> result = new ArrayList<>();
+        for (Extension extension : negotiated) {
+            if (!PERMESSAGE_DEFLATE.equals(extension.getName())) {
+                result.add(extension);
+            } else if (settings.isEnabled()) {
+                result.add(withContextTakeover(extension, settings));
+            }
+        }
+        return result;
+    }
+
+    private static Extension withContextTakeover(Extension offer, WebSocketCompressionSettings settings) {
+        List<Extension.Parameter> parameters = new ArrayList<>(offer.getParameters());
+        if (!settings.isServerContextTakeover()) {
+            addParameter(parameters, SERVER_NO_CONTEXT_TAKEOVER);
+        }
+        if (!settings.isClientContextTakeover()) {
+            addParameter(parameters, CLIENT_NO_CONTEXT_TAKEOVER);
+        }
+        return new NegotiatedExtension(offer.getName(), parameters);
+    }
+
+    private static void addParameter(List<Extension.Parameter> parameters, String name) {
+        // Tomcat rejects an offer that repeats a parameter
+        if (parameters.stream().noneMatch(parameter -> name.equals(parameter.getName()))) {
+            parameters.add(new NegotiatedParameter(name, null));
+        }
+    }
+
+    private record NegotiatedExtension(String name, List<Parameter> parameters) implements Extension {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public List<Parameter> getParameters() {
+            return parameters;
+        }
+    }
+
+    private record NegotiatedParameter(String name, String value) implements Extension.Parameter {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+    }
 }
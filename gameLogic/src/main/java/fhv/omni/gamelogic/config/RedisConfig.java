@@ -0,0 +1,22 @@
+package fhv.omni.gamelogic.config;
+
+import fhv.omni.core.microservice.events.InvalidationChannels;
+import fhv.omni.gamelogic.service.shop.EntitlementInvalidationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       EntitlementInvalidationListener entitlementInvalidationListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(entitlementInvalidationListener, new ChannelTopic(InvalidationChannels.ENTITLEMENTS));
+        return container;
+    }
+}
@@ -0,0 +1,39 @@
+package fhv.omni.gamelogic.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * permessage-deflate on the game endpoint. Read by {@link GameServerEndpointConfigurator} during
+ * the handshake, Tomcat creates the configurator itself so it cannot be injected there.
+ */
+@Component
+public class WebSocketCompressionSettings {
+    private final boolean enabled;
+    private final boolean serverContextTakeover;
+    private final boolean clientContextTakeover;
+
+    public WebSocketCompressionSettings(@Value("${gamelogic.websocket.compression.enabled:true}") boolean enabled,
+                                        @Value("${gamelogic.websocket.compression.server-context-takeover:true}") boolean serverContextTakeover,
+                                        @Value("${gamelogic.websocket.compression.client-context-takeover:true}") boolean clientContextTakeover) {
+        this.enabled = enabled;
+        this.serverContextTakeover = serverContextTakeover;
+        this.clientContextTakeover = clientContextTakeover;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the server keeps its compression window between frames. Keeping it compresses the
+     * repeated keys of consecutive updates best, at the cost of a window per connection.
+     */
+    public boolean isServerContextTakeover() {
+        return serverContextTakeover;
+    }
+
+    public boolean isClientContextTakeover() {
+        return clientContextTakeover;
+    }
+}
@@ -1,7 +1,11 @@
 package fhv.omni.gamelogic.controller;
 
+import fhv.omni.core.microservice.ticket.GameTicket;
+import fhv.omni.core.microservice.ticket.GameTicketCodec;
 import fhv.omni.gamelogic.config.GameServerEndpointConfigurator;
 import fhv.omni.gamelogic.service.game.GameService;
+import fhv.omni.gamelogic.service.shop.PlayerEntitlements;
+import fhv.omni.gamelogic.service.shop.ShopServiceClient;
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
 import org.slf4j.Logger;
@@ -9,8 +13,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static fhv.omni.gamelogic.service.game.JsonUtils.objectMapper;
 
@@ -24,10 +32,14 @@ public class GameServerEndpoint {
     private static final String MAP_ID_KEY = "mapId";
 
     private final GameService gameService;
+    private final GameTicketCodec gameTicketCodec;
+    private final ShopServiceClient shopServiceClient;
 
     @Autowired
-    public GameServerEndpoint(GameService gameService) {
+    public GameServerEndpoint(GameService gameService, GameTicketCodec gameTicketCodec, ShopServiceClient shopServiceClient) {
         this.gameService = gameService;
+        this.gameTicketCodec = gameTicketCodec;
+        this.shopServiceClient = shopServiceClient;
     }
 
     @OnOpen
@@ -39,15 +51,20 @@ public class GameServerEndpoint {
             // Set session timeout to 5 minutes
             session.setMaxIdleTimeout(300000L); // 5 minutes in milliseconds
 
-            // Extract username from token parameter
-            List<String> tokenParams = session.getRequestParameterMap().get("token");
-            if (tokenParams == null || tokenParams.isEmpty()) {
-                logger.error("No token parameter provided for WebSocket connection");
-                session.close();
+            // The username comes from the signed ticket issued by auth, checked without a network call
+            List<String> ticketParams = session.getRequestParameterMap().get("ticket");
+            Optional<GameTicket> ticket = ticketParams == null || ticketParams.isEmpty()
+                    ? Optional.empty()
+                    : gameTicketCodec.verify(ticketParams.getFirst());
+            if (ticket.isEmpty()) {
+                logger.warn("Missing, invalid or expired game ticket for WebSocket connection");
+                session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Invalid game ticket"));
                 return;
             }
 
-            username = tokenParams.getFirst();
+            username = ticket.get().username();
+            // Read before the entitlements are checked, so an invalidation arriving meanwhile wins
+            long entitlementsVersion = shopServiceClient.entitlementsVersion(username);
 
             // Extract mapId from map parameter
             List<String> mapParams = session.getRequestParameterMap().get("map");
@@ -59,6 +76,10 @@ public class GameServerEndpoint {
 
             mapId = mapParams.getFirst();
 
+            if (ticket.get().hasEntitlements() && !acceptEntitlements(ticket.get(), entitlementsVersion, mapId, session)) {
+                return;
+            }
+
             logger.info("WebSocket connection opened for player: {} on map: {}", username, mapId);
 
             // Store both username and mapId in session for later use
@@ -80,6 +101,34 @@ public class GameServerEndpoint {
         }
     }
 
+    /**
+     * Rejects players who have not unlocked the map and caches the ticket's entitlements for the
+     * join. Tickets issued while the shop was unavailable carry none; the room looks them up then.
+     */
+    private boolean acceptEntitlements(GameTicket ticket, long entitlementsVersion, String mapId,
+                                       Session session) throws IOException {
+        PlayerEntitlements entitlements = new PlayerEntitlements(ticket.skin(), Set.copyOf(ticket.maps()));
+
+        if (!entitlements.canPlay(mapId)) {
+            logger.warn("Rejecting player {} on map {} - map not unlocked", ticket.username(), mapId);
+
+            // Sent as room_shutdown so the client returns to the menu instead of reconnecting
+            session.getBasicRemote().sendText(objectMapper.writeValueAsString(Map.of(
+                    "type", "room_shutdown",
+                    "reason", "You have not unlocked this map",
+                    "mapId", mapId
+            )));
+            session.close();
+            return false;
+        }
+
+        // Tickets carry only their expiry, they were issued one TTL before it
+        long expiresAtMillis = TimeUnit.SECONDS.toMillis(ticket.expiresAt());
+        long issuedAtMillis = expiresAtMillis - gameTicketCodec.ttl().toMillis();
+        shopServiceClient.primeEntitlements(ticket.username(), entitlements, issuedAtMillis, expiresAtMillis, entitlementsVersion);
+        return true;
+    }
+
     @OnClose
     public void onClose(Session session, CloseReason closeReason) {
         try {
@@ -2,6 +2,7 @@ package fhv.omni.gamelogic.service.game;
 
 import fhv.omni.gamelogic.service.game.enums.GameState;
 import fhv.omni.gamelogic.service.shop.ShopServiceClient;
+import fhv.omni.gamelogic.service.wallet.CoinAward;
 import fhv.omni.gamelogic.service.wallet.CoinService;
 import jakarta.websocket.Session;
 import org.slf4j.Logger;
@@ -42,14 +43,17 @@ public class GameRoom {
     private long lastTimeUpdate = 0;
     private long lastGameStateUpdate = 0;
 
-    public GameRoom(String mapId, CoinService coinService, ShopServiceClient shopServiceClient) {
+    public GameRoom(String mapId, CoinService coinService, ShopServiceClient shopServiceClient,
+                    OutboundFrameStats frameStats) {
         this.core = new GameRoomCore(mapId, shopServiceClient);
-        this.messaging = new GameRoomMessaging(core);
+        this.messaging = new GameRoomMessaging(core, frameStats);
         this.combatSystem = new CombatSystem(core, messaging);
         this.growingDamageZone = new GrowingDamageZone(core, messaging, combatSystem);
         this.npcManager = new NPCManager(core, messaging, combatSystem);
         this.coinService = coinService;
 
+        core.setSkinChangeListener(this::broadcastPlayerSkinChanged);
+        core.setMapLockedListener(this::kickForLockedMap);
         gameLoop.scheduleAtFixedRate(this::update, 0, TICK_RATE_MS, TimeUnit.MILLISECONDS);
     }
 
@@ -309,6 +313,9 @@ public class GameRoom {
         countdownSeconds = COUNTDOWN_DURATION;
         lastCountdownUpdate = System.currentTimeMillis();
         broadcastCountdownStarted();
+
+        // Players without the map are kicked, which cancels the countdown
+        core.verifyEntitlements();
     }
 
     private void cancelCountdown() {
@@ -399,12 +406,16 @@ public class GameRoom {
         GameStats stats = combatSystem.getGameStats();
         stats.calculateFinalStats(core.getPlayerStates());
 
+        // Results go out right away with the expected rewards, the wallet calls settle off the tick thread
         Map<String, Integer> playerRanks = extractPlayerRanks(stats);
-        Map<String, Integer> coinsAwarded = coinService.awardCoinsToPlayer(playerRanks);
-        stats.setCoinsAwarded(coinsAwarded);
+        Map<String, Integer> expectedRewards = new HashMap<>();
+        playerRanks.forEach((username, rank) -> expectedRewards.put(username, coinService.getRewardForRank(rank)));
+        stats.setCoinsAwarded(expectedRewards);
 
         broadcastGameEnded(reason, stats);
 
+        coinService.awardCoinsToPlayers(playerRanks).thenAccept(this::broadcastCoinsAwarded);
+
         gameLoop.schedule(this::kickAllPlayersAndShutdown, 15, TimeUnit.SECONDS);
     }
 
@@ -446,6 +457,19 @@ public class GameRoom {
         }, 500, TimeUnit.MILLISECONDS);
     }
 
+    private void kickForLockedMap(String username) {
+        logger.info("Kicking player {} from room {} - map not unlocked", username, core.getMapId());
+
+        // Sent as room_shutdown so the client returns to the menu instead of reconnecting
+        Map<String, Object> kickMessage = Map.of(
+                "type", "room_shutdown",
+                "reason", "You have not unlocked this map",
+                "mapId", core.getMapId()
+        );
+
+        messaging.sendKickMessageAndClose(username, kickMessage);
+    }
+
     private void initiateShutdown() {
         if (isShuttingDown.compareAndSet(false, true)) {
             logger.info("Initiating shutdown for room {}", core.getMapId());
@@ -511,7 +535,30 @@ public class GameRoom {
         Map<String, Object> message = Map.of(
                 "type", "game_ended",
                 "reason", reason,
-                "stats", stats.getStatsAsMap()
+                "stats", stats.getStatsAsMap(),
+                "coinsStatus", "pending"
+        );
+
+        messaging.broadcast(JsonUtils.toJson(message));
+    }
+
+    private void broadcastCoinsAwarded(Map<String, CoinAward> awards) {
+        if (isShuttingDown.get()) {
+            return;
+        }
+
+        Map<String, Object> results = new HashMap<>();
+        awards.forEach((username, award) -> {
+            Map<String, Object> result = new HashMap<>();
+            result.put("coinsAwarded", award.coinsAwarded());
+            result.put("totalCoins", award.totalCoins());
+            result.put("success", award.success());
+            results.put(username, result);
+        });
+
+        Map<String, Object> message = Map.of(
+                "type", "coins_awarded",
+                "awards", results
         );
 
         messaging.broadcast(JsonUtils.toJson(message));
@@ -537,6 +584,16 @@ public class GameRoom {
         messaging.broadcastExcept(JsonUtils.toJson(message), username);
     }
 
+    private void broadcastPlayerSkinChanged(String username, String skin) {
+        Map<String, Object> message = Map.of(
+                "type", "player_skin_changed",
+                USERNAME_KEY, username,
+                "skin", skin
+        );
+
+        messaging.broadcast(JsonUtils.toJson(message));
+    }
+
     private void broadcastPlayerLeft(String username) {
         Map<String, Object> message = Map.of(
                 "type", "player_left",
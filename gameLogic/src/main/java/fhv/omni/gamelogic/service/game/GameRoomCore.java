@@ -1,6 +1,7 @@
 package fhv.omni.gamelogic.service.game;
 
 import fhv.omni.gamelogic.service.game.enums.GameState;
+import fhv.omni.gamelogic.service.shop.PlayerEntitlements;
 import fhv.omni.gamelogic.service.shop.ShopServiceClient;
 import jakarta.websocket.Session;
 import org.slf4j.Logger;
@@ -9,6 +10,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class GameRoomCore {
     protected static final int MAX_PLAYERS = 4;
@@ -20,6 +23,10 @@ public class GameRoomCore {
     private final List<SpawnPoint> spawnPoints = new ArrayList<>();
     private final Random random = new Random();
     private final ShopServiceClient shopServiceClient;
+    private BiConsumer<String, String> skinChangeListener = (username, skin) -> {
+    };
+    private Consumer<String> mapLockedListener = username -> {
+    };
     protected GameState gameState = GameState.WAITING;
 
     public GameRoomCore(String mapId, ShopServiceClient shopServiceClient) {
@@ -163,6 +170,24 @@ public class GameRoomCore {
         return mapId;
     }
 
+    /**
+     * Registers the callback invoked when a player's skin is resolved after joining.
+     *
+     * @param skinChangeListener Receives the username and the newly applied skin
+     */
+    public void setSkinChangeListener(BiConsumer<String, String> skinChangeListener) {
+        this.skinChangeListener = skinChangeListener;
+    }
+
+    /**
+     * Registers the callback invoked when a player turns out not to own the room's map.
+     *
+     * @param mapLockedListener Receives the username of the player
+     */
+    public void setMapLockedListener(Consumer<String> mapLockedListener) {
+        this.mapLockedListener = mapLockedListener;
+    }
+
     // Getters
 
     public int getPlayerCount() {
@@ -252,8 +277,8 @@ public class GameRoomCore {
         playerReadyStatus.put(username, false);
         SpawnPoint spawnPoint = getRandomSpawnPoint();
 
-        String playerSkin = shopServiceClient.getPlayerSkin(username);
-        logger.info("Fetched skin for player {}: {}", username, playerSkin);
+        // Join immediately with the cached (or default) skin, the resolved one is pushed later
+        String playerSkin = shopServiceClient.getCachedPlayerSkin(username);
 
         PlayerState state = new PlayerState(
                 spawnPoint.x(),
@@ -263,17 +288,53 @@ public class GameRoomCore {
         );
 
         playerStates.put(username, state);
+        resolveEntitlements(List.of(username));
     }
 
     private void handleReconnection(String username) {
         logger.info("Player {} reconnected to room {}", username, mapId);
 
+        if (playerStates.containsKey(username)) {
+            resolveEntitlements(List.of(username));
+        }
+    }
+
+    /**
+     * Re-checks the entitlements of everyone in the room with a single lookup, e.g. before
+     * a match starts.
+     */
+    public void verifyEntitlements() {
+        resolveEntitlements(players.keySet());
+    }
+
+    private void resolveEntitlements(Collection<String> usernames) {
+        shopServiceClient.getPlayerEntitlementsAsync(List.copyOf(usernames))
+                .thenAccept(entitlements -> entitlements.forEach(this::applyEntitlements));
+    }
+
+    private void applyEntitlements(String username, PlayerEntitlements entitlements) {
+        if (!players.containsKey(username)) {
+            return;
+        }
+
+        if (!entitlements.canPlay(mapId)) {
+            logger.warn("Player {} has not unlocked map {}", username, mapId);
+            mapLockedListener.accept(username);
+            return;
+        }
+
+        applyResolvedSkin(username, entitlements.skin());
+    }
+
+    private void applyResolvedSkin(String username, String skin) {
         PlayerState state = playerStates.get(username);
-        if (state != null) {
-            String playerSkin = shopServiceClient.getPlayerSkin(username);
-            state.setSkin(playerSkin);
-            logger.info("Updated skin for reconnected player {}: {}", username, playerSkin);
+        if (state == null || skin.equals(state.getSkin())) {
+            return;
         }
+
+        state.setSkin(skin);
+        logger.info("Resolved skin for player {}: {}", username, skin);
+        skinChangeListener.accept(username, state.getSkin());
     }
 
     private record SpawnPoint(float x, float y) {
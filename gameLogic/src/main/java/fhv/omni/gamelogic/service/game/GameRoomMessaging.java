@@ -13,13 +13,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class GameRoomMessaging {
     private final Logger logger = LoggerFactory.getLogger(GameRoomMessaging.class);
     private final GameRoomCore core;
+    private final OutboundFrameStats frameStats;
 
     private final Map<String, BlockingQueue<String>> messageQueues = new ConcurrentHashMap<>();
     private final Map<String, AtomicBoolean> sendingInProgress = new ConcurrentHashMap<>();
     private final Map<String, ExecutorService> playerExecutors = new ConcurrentHashMap<>();
 
-    public GameRoomMessaging(GameRoomCore core) {
+    public GameRoomMessaging(GameRoomCore core, OutboundFrameStats frameStats) {
         this.core = core;
+        this.frameStats = frameStats;
     }
 
     public void queueMessage(String username, String message) {
@@ -183,6 +185,7 @@ public class GameRoomMessaging {
     private boolean sendMessage(Session session, String message, String username) {
         try {
             session.getBasicRemote().sendText(message);
+            frameStats.record(session, message);
             return true;
         } catch (IOException e) {
             logger.warn("Failed to send message to player {}: {}", username, e.getMessage());
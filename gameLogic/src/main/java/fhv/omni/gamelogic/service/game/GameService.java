@@ -28,10 +28,12 @@ public class GameService {
     private final ScheduledExecutorService cleanupService = Executors.newSingleThreadScheduledExecutor();
     private final CoinService coinService;
     private final ShopServiceClient shopServiceClient;
+    private final OutboundFrameStats frameStats;
 
-    public GameService(CoinService coinService, ShopServiceClient shopServiceClient) {
+    public GameService(CoinService coinService, ShopServiceClient shopServiceClient, OutboundFrameStats frameStats) {
         this.coinService = coinService;
         this.shopServiceClient = shopServiceClient;
+        this.frameStats = frameStats;
         cleanupService.scheduleAtFixedRate(this::cleanupEmptyRooms, 1, 2, TimeUnit.MINUTES);
     }
 
@@ -48,7 +50,7 @@ public class GameService {
 
         if (room == null) {
             logger.info("Creating new game room for map {} (recreation: {})", mapId, roomRecreated);
-            room = new GameRoom(mapId, coinService, shopServiceClient);
+            room = new GameRoom(mapId, coinService, shopServiceClient, frameStats);
             gameRooms.put(mapId, room);
         }
 
@@ -0,0 +1,211 @@
+package fhv.omni.gamelogic.service.game;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.Extension;
+import jakarta.websocket.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+
+/**
+ * Reports the frames sent to players by message type and, for every n-th frame of a type, its
+ * size and the bytes permessage-deflate saves on it. The sample is deflated on its own, like a
+ * connection without context takeover, so with context takeover the real savings are higher.
+ * All samples share one deflater; a sample that finds it busy is skipped instead of waiting on
+ * the send path.
+ */
+@Component
+public class OutboundFrameStats {
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String TYPE_KEY = "type";
+    private static final String UNKNOWN_TYPE = "unknown";
+    // permessage-deflate strips the empty block that ends every sync flush
+    private static final int SYNC_FLUSH_TRAILER = 4;
+
+    private final MeterRegistry meterRegistry;
+    private final int sampleEvery;
+    private final Map<String, TypeMeters> metersByType = new ConcurrentHashMap<>();
+    // Same settings as Tomcat's permessage-deflate
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final ReentrantLock deflaterLock = new ReentrantLock();
+    // Guarded by deflaterLock
+    private boolean deflaterEnded;
+
+    public OutboundFrameStats(MeterRegistry meterRegistry,
+                              @Value("${gamelogic.websocket.stats.sample-every:20}") int sampleEvery) {
+        this.meterRegistry = meterRegistry;
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public void record(Session session, String message) {
+        boolean compressed = isCompressed(session);
+        TypeMeters meters = metersByType.computeIfAbsent(messageType(message), this::createMeters);
+
+        (compressed ? meters.compressedFrames : meters.plainFrames).increment();
+        if (meters.sequence.getAndIncrement() % sampleEvery != 0) {
+            return;
+        }
+
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        int deflated = deflatedSize(payload);
+        if (deflated < 0) {
+            return;
+        }
+        meters.size.record(payload.length);
+        meters.deflatedSize.record(deflated);
+        if (compressed) {
+            meters.saved.record(payload.length - deflated);
+        }
+    }
+
+    private TypeMeters createMeters(String type) {
+        return new TypeMeters(
+                Counter.builder("gamelogic.websocket.frames")
+                        .tag("type", type).tag("compressed", "true")
+                        .register(meterRegistry),
+                Counter.builder("gamelogic.websocket.frames")
+                        .tag("type", type).tag("compressed", "false")
+                        .register(meterRegistry),
+                DistributionSummary.builder("gamelogic.websocket.frame.size")
+                        .description("Size of sampled frames before compression")
+                        .baseUnit("bytes").tag("type", type)
+                        .register(meterRegistry),
+                DistributionSummary.builder("gamelogic.websocket.frame.deflated.size")
+                        .description("Size of sampled frames after permessage-deflate")
+                        .baseUnit("bytes").tag("type", type)
+                        .register(meterRegistry),
+                DistributionSummary.builder("gamelogic.websocket.frame.saved")
+                        .description("Bytes saved on sampled frames of connections with permessage-deflate")
+                        .baseUnit("bytes").tag("type", type)
+                        .register(meterRegistry),
+                new AtomicLong());
+    }
+
+    private static boolean isCompressed(Session session) {
+        for (Extension extension : session.getNegotiatedExtensions()) {
+            if (PERMESSAGE_DEFLATE.equals(extension.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the top-level type field from the serialized message instead of parsing it again.
+     * Nested objects and string values are skipped, so a {@code "type"} inside them is not
+     * mistaken for the message type. Types are fixed names chosen by the server, so the tag
+     * stays bounded.
+     */
+    private static String messageType(String message) {
+        int depth = 0;
+        boolean expectKey = false;
+
+        for (int i = 0; i < message.length(); i++) {
+            switch (message.charAt(i)) {
+                case '{' -> expectKey = ++depth == 1;
+                case '[' -> depth++;
+                case '}', ']' -> depth--;
+                case ',' -> expectKey = depth == 1;
+                case '"' -> {
+                    int end = closingQuote(message, i);
+                    if (end < 0) {
+                        return UNKNOWN_TYPE;
+                    }
+                    if (expectKey && end - i - 1 == TYPE_KEY.length() && message.startsWith(TYPE_KEY, i + 1)) {
+                        return typeValue(message, end + 1);
+                    }
+                    expectKey = false;
+                    i = end;
+                }
+                default -> {
+                }
+            }
+        }
+        return UNKNOWN_TYPE;
+    }
+
+    private static String typeValue(String message, int afterKey) {
+        int colon = skipWhitespace(message, afterKey);
+        if (colon >= message.length() || message.charAt(colon) != ':') {
+            return UNKNOWN_TYPE;
+        }
+
+        int start = skipWhitespace(message, colon + 1);
+        if (start >= message.length() || message.charAt(start) != '"') {
+            return UNKNOWN_TYPE;
+        }
+
+        int end = closingQuote(message, start);
+        return end > start + 1 ? message.substring(start + 1, end) : UNKNOWN_TYPE;
+    }
+
+    private static int closingQuote(String message, int openingQuote) {
+        for (int i = openingQuote + 1; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String message, int index) {
+        while (index < message.length() && Character.isWhitespace(message.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return The deflated size, or -1 if another sample is using the deflater or it was released
+     */
+    private int deflatedSize(byte[] payload) {
+        if (!deflaterLock.tryLock()) {
+            return -1;
+        }
+
+        try {
+            if (deflaterEnded) {
+                return -1;
+            }
+            deflater.reset();
+            deflater.setInput(payload);
+            byte[] buffer = new byte[payload.length + 64];
+            int size = 0;
+            int written;
+            do {
+                written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                size += written;
+            } while (written == buffer.length);
+            return size - SYNC_FLUSH_TRAILER;
+        } finally {
+            deflaterLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deflaterLock.lock();
+        try {
+            deflaterEnded = true;
+            deflater.end();
+        } finally {
+            deflaterLock.unlock();
+        }
+    }
+
+    private record TypeMeters(Counter compressedFrames, Counter plainFrames, DistributionSummary size,
+                              DistributionSummary deflatedSize, DistributionSummary saved, AtomicLong sequence) {
+    }
+}
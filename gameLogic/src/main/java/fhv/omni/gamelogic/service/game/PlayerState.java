@@ -10,7 +10,7 @@ public class PlayerState {
     private boolean flipX;
     private int health;
     private boolean isDead;
-    private String skin = DEFAULT_SKIN;
+    private volatile String skin = DEFAULT_SKIN;
 
     public PlayerState(float x, float y, float vx, float vy, boolean flipX) {
         this.x = x;
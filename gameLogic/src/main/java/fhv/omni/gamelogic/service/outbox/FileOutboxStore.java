@@ -0,0 +1,169 @@
+package fhv.omni.gamelogic.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fhv.omni.core.microservice.events.DomainEvent;
+import fhv.omni.core.microservice.events.OutboxStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbox kept in a local append-only journal, so recorded events survive restarts of gameLogic.
+ * Every append and every publish confirmation is a line ({@code +<event json>} or {@code -<id>})
+ * that is synced to disk before the call returns. Pending events are rebuilt from the journal
+ * on startup, and the journal is rewritten with only the pending events once it has grown
+ * past {@code compactThresholdBytes}.
+ */
+public class FileOutboxStore implements OutboxStore {
+    private static final char APPENDED = '+';
+    private static final char PUBLISHED = '-';
+
+    private final Logger logger = LoggerFactory.getLogger(FileOutboxStore.class);
+    private final Path journal;
+    private final ObjectMapper objectMapper;
+    private final long compactThresholdBytes;
+    private final Map<String, DomainEvent> pendingEvents = new LinkedHashMap<>();
+    private FileOutputStream output;
+    private long journalSize;
+
+    public FileOutboxStore(Path journal, ObjectMapper objectMapper, long compactThresholdBytes) {
+        this.journal = journal;
+        this.objectMapper = objectMapper;
+        this.compactThresholdBytes = compactThresholdBytes;
+
+        try {
+            Path directory = journal.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            if (Files.exists(journal)) {
+                replay();
+            }
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open outbox journal " + journal, e);
+        }
+
+        if (!pendingEvents.isEmpty()) {
+            logger.info("Recovered {} unpublished events from {}", pendingEvents.size(), journal);
+        }
+    }
+
+    @Override
+    public synchronized void append(DomainEvent event) {
+        try {
+            write(APPENDED + objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize event " + event.id(), e);
+        }
+        pendingEvents.put(event.id(), event);
+    }
+
+    @Override
+    public synchronized List<DomainEvent> findUnpublished(int limit) {
+        return pendingEvents.values().stream().limit(limit).toList();
+    }
+
+    @Override
+    public synchronized void markPublished(Collection<String> eventIds) {
+        StringBuilder lines = new StringBuilder();
+        for (String eventId : eventIds) {
+            if (pendingEvents.remove(eventId) != null) {
+                lines.append(lines.isEmpty() ? "" : "\n").append(PUBLISHED).append(eventId);
+            }
+        }
+
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        write(lines.toString());
+
+        if (journalSize > compactThresholdBytes) {
+            try {
+                compact();
+            } catch (IOException e) {
+                logger.error("Error compacting outbox journal {}: {}", journal, e.getMessage());
+            }
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            if (output != null) {
+                output.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Error closing outbox journal {}: {}", journal, e.getMessage());
+        }
+    }
+
+    private void write(String lines) {
+        byte[] bytes = (lines + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            output.write(bytes);
+            output.getFD().sync();
+            journalSize += bytes.length;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write outbox journal " + journal, e);
+        }
+    }
+
+    private void replay() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                if (line.charAt(0) == PUBLISHED) {
+                    pendingEvents.remove(line.substring(1));
+                } else if (line.charAt(0) == APPENDED) {
+                    try {
+                        DomainEvent event = objectMapper.readValue(line.substring(1), DomainEvent.class);
+                        pendingEvents.put(event.id(), event);
+                    } catch (JsonProcessingException e) {
+                        // Only the last line can be cut off, by a crash during the append it records
+                        logger.warn("Skipping unreadable line in outbox journal {}", journal);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrites the journal with the pending events only. The new journal replaces the old one
+     * atomically, so a crash leaves either of them intact.
+     */
+    private void compact() throws IOException {
+        Path compacted = journal.resolveSibling(journal.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder();
+        for (DomainEvent event : pendingEvents.values()) {
+            content.append(APPENDED).append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+
+        try (FileOutputStream compactedOutput = new FileOutputStream(compacted.toFile())) {
+            compactedOutput.write(content.toString().getBytes(StandardCharsets.UTF_8));
+            compactedOutput.getFD().sync();
+        }
+        Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        close();
+        output = new FileOutputStream(journal.toFile(), true);
+        journalSize = Files.size(journal);
+    }
+}
@@ -0,0 +1,37 @@
+package fhv.omni.gamelogic.service.shop;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Drops cached entitlements when the shop announces a change for a player. Messages sent while
+ * the subscription was down are lost, so the whole cache is dropped whenever it is (re)established.
+ */
+@Component
+public class EntitlementInvalidationListener implements MessageListener, SubscriptionListener {
+    private final Logger logger = LoggerFactory.getLogger(EntitlementInvalidationListener.class);
+    private final ShopServiceClient shopServiceClient;
+
+    public EntitlementInvalidationListener(ShopServiceClient shopServiceClient) {
+        this.shopServiceClient = shopServiceClient;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String username = new String(message.getBody(), StandardCharsets.UTF_8);
+        logger.debug("Entitlements of {} changed in the shop", username);
+        shopServiceClient.invalidateCachedEntitlements(username);
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        logger.info("Subscribed to entitlement changes, dropping cached entitlements");
+        shopServiceClient.invalidateAllCachedEntitlements();
+    }
+}
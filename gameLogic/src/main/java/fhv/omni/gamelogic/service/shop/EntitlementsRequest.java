@@ -0,0 +1,8 @@
+package fhv.omni.gamelogic.service.shop;
+
+import java.util.Collection;
+
+public record EntitlementsRequest(
+        Collection<String> usernames
+) {
+}
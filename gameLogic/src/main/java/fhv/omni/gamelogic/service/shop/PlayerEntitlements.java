@@ -0,0 +1,20 @@
+package fhv.omni.gamelogic.service.shop;
+
+import java.util.Set;
+
+/**
+ * What a player owns in the shop that matters to the game server.
+ *
+ * @param skin         Selected skin
+ * @param unlockedMaps Purchased map unlocks, the free map is not included
+ */
+public record PlayerEntitlements(
+        String skin,
+        Set<String> unlockedMaps
+) {
+    public static final String FREE_MAP = "map1";
+
+    public boolean canPlay(String mapId) {
+        return FREE_MAP.equals(mapId) || unlockedMaps.contains(mapId);
+    }
+}
@@ -0,0 +1,13 @@
+package fhv.omni.gamelogic.service.shop;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PlayerEntitlementsResponse(
+        String username,
+        String selectedSkin,
+        List<String> unlockedMaps
+) {
+}
@@ -1,71 +1,197 @@
 package fhv.omni.gamelogic.service.shop;
 
+import fhv.omni.core.microservice.cache.VersionedLruCache;
+import fhv.omni.core.microservice.http.ServiceClientFactory;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
 
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ShopServiceClient {
     private static final String DEFAULT_SKIN = "player_0";
+    private static final ParameterizedTypeReference<List<PlayerEntitlementsResponse>> ENTITLEMENTS_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
 
     private final Logger logger = LoggerFactory.getLogger(ShopServiceClient.class);
-    private final RestTemplate restTemplate;
-    private final String shopServiceUrl;
-    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final RestClient restClient;
+    private final ExecutorService executorService;
+    // Invalidated as soon as the shop announces a change, the TTL only bounds missed messages
+    private final VersionedLruCache<String, PlayerEntitlements> entitlementsCache;
+    private final Map<String, CompletableFuture<PlayerEntitlements>> inFlightRequests = new ConcurrentHashMap<>();
+
+    public ShopServiceClient(ServiceClientFactory serviceClientFactory,
+                             @Value("${services.shop.url:http://localhost:8084}") String shopServiceUrl,
+                             @Value("${services.shop.threads:4}") int threads,
+                             @Value("${services.shop.entitlements-cache.ttl-seconds:3600}") long cacheTtlSeconds,
+                             @Value("${services.shop.entitlements-cache.max-size:1000}") int cacheMaxSize) {
+        this.restClient = serviceClientFactory.create(shopServiceUrl);
+        this.entitlementsCache = new VersionedLruCache<>(TimeUnit.SECONDS.toMillis(cacheTtlSeconds), cacheMaxSize);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ShopServiceClient-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
 
-    public ShopServiceClient(@Value("${services.shop.url:http://localhost:8084}") String shopServiceUrl) {
-        this.shopServiceUrl = shopServiceUrl;
-        this.restTemplate = new RestTemplate();
         logger.info("ShopServiceClient initialized with URL: {}", shopServiceUrl);
     }
 
-    public String getPlayerSkin(String username) {
-        try {
-            logger.info("Fetching skin for player: {}", username);
-            String url = shopServiceUrl + "/api/shop/preferences/" + username;
-
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, 
-                    HttpMethod.GET, 
-                    null, 
-                    new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
-                if (body != null) {
-                    String selectedSkin = (String) body.get("selectedSkin");
-                    logger.info("Retrieved skin for player {}: {}", username, selectedSkin);
-                    return selectedSkin != null && !selectedSkin.isEmpty() ? selectedSkin : DEFAULT_SKIN;
-                } else {
-                    logger.warn("Response body is null for player {}", username);
-                    return DEFAULT_SKIN;
-                }
+    /**
+     * Returns the cached skin of a player without touching the network, or the default skin
+     * if the player has not been resolved yet.
+     */
+    public String getCachedPlayerSkin(String username) {
+        return entitlementsCache.get(username).map(PlayerEntitlements::skin).orElse(DEFAULT_SKIN);
+    }
+
+    /**
+     * Resolves the entitlements of several players in the background. Cached players complete
+     * immediately, all others are fetched with a single bulk request to the shop service, and
+     * concurrent lookups of the same player share one request.
+     * The returned future never completes exceptionally; players whose entitlements could not
+     * be resolved are missing from the result.
+     */
+    public CompletableFuture<Map<String, PlayerEntitlements>> getPlayerEntitlementsAsync(Collection<String> usernames) {
+        Map<String, CompletableFuture<PlayerEntitlements>> lookups = new HashMap<>();
+        Map<String, CompletableFuture<PlayerEntitlements>> toFetch = new HashMap<>();
+
+        for (String username : usernames) {
+            Optional<PlayerEntitlements> cached = entitlementsCache.get(username);
+            if (cached.isPresent()) {
+                lookups.put(username, CompletableFuture.completedFuture(cached.get()));
+                continue;
+            }
+
+            CompletableFuture<PlayerEntitlements> request = new CompletableFuture<>();
+            CompletableFuture<PlayerEntitlements> inFlight = inFlightRequests.putIfAbsent(username, request);
+            if (inFlight != null) {
+                lookups.put(username, inFlight);
             } else {
-                logger.warn("Failed to get skin for player {}: No data returned", username);
-                return DEFAULT_SKIN;
+                lookups.put(username, request);
+                toFetch.put(username, request);
             }
-        } catch (HttpClientErrorException.NotFound e) {
-            logger.warn("Player {} not found in shop service, using default skin", username);
-            return DEFAULT_SKIN;
+        }
+
+        if (!toFetch.isEmpty()) {
+            Map<String, Long> cacheVersions = new HashMap<>();
+            toFetch.keySet().forEach(username -> cacheVersions.put(username, entitlementsCache.version(username)));
+
+            try {
+                executorService.execute(() -> resolveEntitlements(toFetch, cacheVersions));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Entitlement lookup for {} rejected: {}", toFetch.keySet(), e.getMessage());
+                completeRequests(toFetch, Map.of());
+            }
+        }
+
+        return CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<String, PlayerEntitlements> resolved = new HashMap<>();
+                    lookups.forEach((username, lookup) -> {
+                        PlayerEntitlements entitlements = lookup.join();
+                        if (entitlements != null) {
+                            resolved.put(username, entitlements);
+                        }
+                    });
+                    return resolved;
+                });
+    }
+
+    /**
+     * Version to pass to {@link #primeEntitlements}, read when the player's socket opens.
+     */
+    public long entitlementsVersion(String username) {
+        return entitlementsCache.version(username);
+    }
+
+    /**
+     * Seeds the cache with entitlements the player presented in a game ticket, so the join
+     * does not ask the shop. They are used until the ticket expires. If the shop announced a
+     * change since the ticket was issued, or announces one before they are cached, the ticket
+     * is outdated and the entitlements are looked up instead.
+     *
+     * @param version Result of {@link #entitlementsVersion} when the socket opened
+     */
+    public void primeEntitlements(String username, PlayerEntitlements entitlements,
+                                  long issuedAtMillis, long expiresAtMillis, long version) {
+        if (entitlementsCache.invalidatedSince(username, issuedAtMillis)) {
+            logger.debug("Not caching ticket entitlements of {}, they changed after the ticket was issued", username);
+            return;
+        }
+        entitlementsCache.putIfUnchanged(username, entitlements, version, expiresAtMillis);
+    }
+
+    public void invalidateCachedEntitlements(String username) {
+        entitlementsCache.invalidate(username);
+    }
+
+    public void invalidateAllCachedEntitlements() {
+        entitlementsCache.invalidateAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    private void resolveEntitlements(Map<String, CompletableFuture<PlayerEntitlements>> requests,
+                                     Map<String, Long> cacheVersions) {
+        Map<String, PlayerEntitlements> resolved = Map.of();
+
+        try {
+            resolved = fetchEntitlements(requests.keySet());
+            resolved.forEach((username, entitlements) ->
+                    entitlementsCache.putIfUnchanged(username, entitlements, cacheVersions.get(username)));
         } catch (Exception e) {
-            logger.error("Error fetching skin for player {}: {}", username, e.getMessage());
-            return DEFAULT_SKIN;
+            // Failures are not cached so the next join retries the lookup
+            logger.error("Error fetching entitlements for players {}: {}", requests.keySet(), e.getMessage());
+        } finally {
+            completeRequests(requests, resolved);
         }
     }
 
-    public CompletableFuture<String> getPlayerSkinAsync(String username) {
-        return CompletableFuture.supplyAsync(() -> getPlayerSkin(username), executorService);
+    private void completeRequests(Map<String, CompletableFuture<PlayerEntitlements>> requests,
+                                  Map<String, PlayerEntitlements> resolved) {
+        requests.forEach((username, request) -> {
+            inFlightRequests.remove(username, request);
+            request.complete(resolved.get(username));
+        });
+    }
+
+    private Map<String, PlayerEntitlements> fetchEntitlements(Collection<String> usernames) {
+        logger.info("Fetching entitlements for players: {}", usernames);
+
+        List<PlayerEntitlementsResponse> response = restClient.post()
+                .uri("/api/shop/entitlements")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new EntitlementsRequest(usernames))
+                .retrieve()
+                .body(ENTITLEMENTS_TYPE);
+
+        if (response == null) {
+            logger.warn("Failed to get entitlements for players {}: No data returned", usernames);
+            return Map.of();
+        }
+
+        Map<String, PlayerEntitlements> entitlements = new HashMap<>();
+        for (PlayerEntitlementsResponse player : response) {
+            String skin = player.selectedSkin() != null && !player.selectedSkin().isEmpty() ? player.selectedSkin() : DEFAULT_SKIN;
+            Set<String> unlockedMaps = player.unlockedMaps() != null ? Set.copyOf(player.unlockedMaps()) : Set.of();
+            entitlements.put(player.username(), new PlayerEntitlements(skin, unlockedMaps));
+        }
+
+        logger.info("Retrieved entitlements for {} players", entitlements.size());
+        return entitlements;
     }
 }
@@ -0,0 +1,7 @@
+package fhv.omni.gamelogic.service.wallet;
+
+public record AddCoinsRequest(
+        String username,
+        Integer amount
+) {
+}
@@ -0,0 +1,12 @@
+package fhv.omni.gamelogic.service.wallet;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AddCoinsResponse(
+        String username,
+        Integer coinsAdded,
+        Integer totalCoins,
+        String message
+) {
+}
@@ -0,0 +1,8 @@
+package fhv.omni.gamelogic.service.wallet;
+
+import java.util.List;
+
+public record BatchAddCoinsRequest(
+        List<CoinCredit> entries
+) {
+}
@@ -0,0 +1,16 @@
+package fhv.omni.gamelogic.service.wallet;
+
+/**
+ * Outcome of a coin award at the end of a match.
+ *
+ * @param coinsAwarded Coins credited to the player, 0 if the award failed
+ * @param totalCoins   Wallet balance after the award, null if unknown
+ */
+public record CoinAward(
+        String username,
+        int rank,
+        int coinsAwarded,
+        Integer totalCoins,
+        boolean success
+) {
+}
@@ -0,0 +1,8 @@
+package fhv.omni.gamelogic.service.wallet;
+
+public record CoinCredit(
+        String username,
+        Integer amount,
+        String reason
+) {
+}
@@ -2,16 +2,34 @@ package fhv.omni.gamelogic.service.wallet;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import fhv.omni.core.microservice.events.DomainEvent;
+import fhv.omni.core.microservice.events.EventTypes;
+import fhv.omni.core.microservice.events.OutboxStore;
+import fhv.omni.core.microservice.http.IdempotentRetry;
+import fhv.omni.core.microservice.http.ServiceClientFactory;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class CoinService {
@@ -21,68 +39,101 @@ public class CoinService {
             3, 50, // 3rd place: 50 coins
             4, 25 // 4th place: 25 coins
     );
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(200);
+
     private final Logger logger = LoggerFactory.getLogger(CoinService.class);
-    private final RestTemplate restTemplate;
+    private final RestClient restClient;
+    private final ExecutorService executorService;
+    private final OutboxStore awardOutbox;
     private final ObjectMapper objectMapper;
-    @Value("${wallet.service.url:http://localhost:8083}")
-    private String walletServiceUrl;
+    private final int maxAttempts;
+    private final long awardTimeoutSeconds;
+    private final int awardBatchSize;
+    // Appends to the outbox journal, whose writes fsync and may wait for a compaction
+    private final ExecutorService outboxWriter;
+    // Delivers the outbox over REST, only used when the event streams are disabled
+    private final ScheduledExecutorService awardDispatcher;
+    // Match rewards recorded in the outbox, by credit key, until the wallet confirms them
+    private final Map<String, CompletableFuture<Map<String, Integer>>> pendingMatchCredits = new ConcurrentHashMap<>();
 
-    public CoinService() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
-    }
+    public CoinService(ServiceClientFactory serviceClientFactory,
+                       OutboxStore awardOutbox,
+                       ObjectMapper objectMapper,
+                       @Value("${wallet.service.url:http://localhost:8083}") String walletServiceUrl,
+                       @Value("${wallet.service.threads:4}") int threads,
+                       @Value("${wallet.service.max-attempts:3}") int maxAttempts,
+                       @Value("${wallet.service.award-timeout-seconds:30}") long awardTimeoutSeconds,
+                       @Value("${wallet.awards.dispatch-interval-ms:5000}") long awardDispatchIntervalMs,
+                       @Value("${wallet.awards.batch-size:50}") int awardBatchSize,
+                       @Value("${omni.events.enabled:false}") boolean eventsEnabled) {
+        this.restClient = serviceClientFactory.create(walletServiceUrl);
+        this.awardOutbox = awardOutbox;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = maxAttempts;
+        this.awardTimeoutSeconds = awardTimeoutSeconds;
+        this.awardBatchSize = awardBatchSize;
 
-    public CompletableFuture<Integer> awardCoinsForRank(String username, int rank) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Integer coinsToAward = RANK_REWARDS.get(rank);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "CoinService-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.outboxWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "CoinService-OutboxWriter");
+            t.setDaemon(true);
+            return t;
+        });
 
-                if (coinsToAward == null) {
-                    logger.warn("No coin reward defined for rank: {}", rank);
-                    return null;
-                }
+        // With events enabled the outbox relay forwards the awards to the wallet instead
+        if (eventsEnabled) {
+            this.awardDispatcher = null;
+        } else {
+            this.awardDispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "CoinService-AwardDispatcher");
+                t.setDaemon(true);
+                return t;
+            });
+            awardDispatcher.scheduleWithFixedDelay(this::dispatchPendingAwards,
+                    0, awardDispatchIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
 
-                return addCoinsToWallet(username, coinsToAward);
-            } catch (Exception e) {
-                logger.error("Error awarding coins to player {}: {}", username, e.getMessage());
-                return null;
-            }
-        });
+    public int getRewardForRank(int rank) {
+        return RANK_REWARDS.getOrDefault(rank, 0);
+    }
+
+    /**
+     * Awards the reward of a single rank through the outbox, see {@link #awardCoinsToPlayers}.
+     *
+     * @return The new balance, or null if the award is not confirmed yet
+     */
+    public CompletableFuture<Integer> awardCoinsForRank(String username, int rank) {
+        return awardCoinsToPlayers(Map.of(username, rank))
+                .thenApply(awards -> awards.get(username).totalCoins());
     }
 
     private Integer addCoinsToWallet(String username, Integer amount) {
         try {
-            String url = this.walletServiceUrl + "/api/wallet/" + username + "/add-coins";
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("username", username);
-            requestBody.put("amount", amount);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    requestEntity,
-                    String.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                Map<String, Object> responseBody = objectMapper.readValue(response.getBody(), Map.class);
-                Integer totalCoins = (Integer) responseBody.get("totalCoins");
-
-                logger.info("Successfully awarded {} coins to {}. Total coins: {}", amount, username, totalCoins);
+            String idempotencyKey = UUID.randomUUID().toString();
+            AddCoinsResponse response = IdempotentRetry.call(() -> restClient.post()
+                    .uri("/api/wallet/{username}/add-coins", username)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(IdempotentRetry.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .body(new AddCoinsRequest(username, amount))
+                    .retrieve()
+                    .body(AddCoinsResponse.class), maxAttempts, RETRY_BACKOFF);
 
-                return totalCoins;
-            } else {
-                logger.error("Failed to add coins for {}: HTTP {}", username, response.getStatusCode());
+            if (response == null) {
+                logger.error("Failed to add coins for {}: empty response", username);
                 return null;
             }
-        } catch (JsonProcessingException e) {
-            logger.error("Error parsing wallet service response for {}: {}", username, e.getMessage());
+
+            logger.info("Successfully awarded {} coins to {}. Total coins: {}", amount, username, response.totalCoins());
+
+            return response.totalCoins();
+        } catch (RestClientResponseException e) {
+            logger.error("Failed to add coins for {}: HTTP {}", username, e.getStatusCode());
             return null;
         } catch (Exception e) {
             logger.error("Error communicating with wallet service for {}: {}", username, e.getMessage());
@@ -93,51 +144,233 @@ public class CoinService {
     public CompletableFuture<Integer> getPlayerCoins(String username) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                String url = this.walletServiceUrl + "/api/wallet/" + username + "/coins";
-
-                ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+                CoinsResponse response = restClient.get()
+                        .uri("/api/wallet/{username}/coins", username)
+                        .retrieve()
+                        .body(CoinsResponse.class);
 
-                if (response.getStatusCode().is2xxSuccessful()) {
-                    Map<String, Object> responseBody = objectMapper.readValue(response.getBody(), Map.class);
-                    return (Integer) responseBody.get("coins");
-                } else {
-                    logger.warn("Failed to get coins for {}: HTTP {}", username, response.getStatusCode());
-                    return 0;
-                }
+                return response != null && response.coins() != null ? response.coins() : 0;
+            } catch (RestClientResponseException e) {
+                logger.warn("Failed to get coins for {}: HTTP {}", username, e.getStatusCode());
+                return 0;
             } catch (Exception e) {
                 logger.error("Error getting coins for {}: {}", username, e.getMessage());
                 return 0;
             }
-        });
+        }, executorService);
     }
 
-    public Map<String, Integer> awardCoinsToPlayer(Map<String, Integer> playerRanks) {
-        Map<String, Integer> coinResults = new HashMap<>();
+    /**
+     * Credits several wallets with a single request to the wallet service, which applies
+     * all entries in one transaction. The returned future never completes exceptionally;
+     * it maps every credited player to the new balance and is empty if the batch failed.
+     */
+    public CompletableFuture<Map<String, Integer>> addCoinsBatch(List<CoinCredit> credits) {
+        if (credits.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        return CompletableFuture.supplyAsync(() -> addCoinsToWallets(credits), executorService)
+                .exceptionally(e -> {
+                    logger.error("Error adding coins in batch: {}", e.getMessage());
+                    return Map.of();
+                });
+    }
+
+    private Map<String, Integer> addCoinsToWallets(List<CoinCredit> credits) {
+        try {
+            Map<String, Integer> balances = postBatchCredit(credits, UUID.randomUUID().toString());
+            if (balances == null) {
+                logger.error("Failed to add coins in batch: empty response");
+                return Map.of();
+            }
+
+            logger.info("Successfully credited {} wallets in one batch", balances.size());
+            return balances;
+        } catch (RestClientResponseException e) {
+            logger.error("Failed to add coins in batch: HTTP {}", e.getStatusCode());
+            return Map.of();
+        } catch (Exception e) {
+            logger.error("Error communicating with wallet service for batch credit: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * @return The new balance of every credited player, or null if the response was empty
+     */
+    private Map<String, Integer> postBatchCredit(List<CoinCredit> credits, String idempotencyKey) {
+        BatchAddCoinsResponse response = IdempotentRetry.call(() -> restClient.post()
+                .uri("/api/wallet/add-coins/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotentRetry.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .body(new BatchAddCoinsRequest(credits))
+                .retrieve()
+                .body(BatchAddCoinsResponse.class), maxAttempts, RETRY_BACKOFF);
+
+        if (response == null || response.balances() == null) {
+            return null;
+        }
+
+        Map<String, Integer> balances = new HashMap<>();
+        response.balances().forEach(balance -> balances.put(balance.username(), balance.coins()));
+        return balances;
+    }
+
+    /**
+     * Awards the rank rewards of a finished match. The rewards are recorded in the durable
+     * outbox first and delivered to the wallet in the background, as a {@code match_completed}
+     * event or, with events disabled, as a batch credit that is retried until the wallet
+     * accepts it. The returned future never completes exceptionally, awards that are not
+     * confirmed in time are reported with {@code success == false} but still delivered.
+     */
+    public CompletableFuture<Map<String, CoinAward>> awardCoinsToPlayers(Map<String, Integer> playerRanks) {
+        List<CoinCredit> credits = new ArrayList<>();
 
         playerRanks.forEach((username, rank) -> {
-            CompletableFuture<Integer> future = awardCoinsForRank(username, rank);
+            int reward = getRewardForRank(rank);
+
+            if (reward > 0) {
+                credits.add(new CoinCredit(username, reward, "match_rank_" + rank));
+            } else {
+                logger.warn("No coin reward defined for rank: {}", rank);
+            }
+        });
+
+        return recordMatchRewards(credits).thenApply(balances -> {
+            Map<String, CoinAward> awards = new HashMap<>();
+            playerRanks.forEach((username, rank) -> awards.put(username, toCoinAward(username, rank, balances.get(username))));
+            return awards;
+        });
+    }
+
+    /**
+     * Appends the rewards to the outbox without waiting for the wallet. The append itself runs on
+     * the outbox writer, as this is called from the tick thread of a game room. The future
+     * completes with the confirmed balances, or empty if no confirmation arrives in time.
+     */
+    private CompletableFuture<Map<String, Integer>> recordMatchRewards(List<CoinCredit> credits) {
+        if (credits.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        String matchId = UUID.randomUUID().toString();
+        String creditKey = matchCreditKey(matchId);
+        CompletableFuture<Map<String, Integer>> credited = new CompletableFuture<>();
+        pendingMatchCredits.put(creditKey, credited);
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new MatchCompletedEvent(matchId, credits));
+        } catch (JsonProcessingException e) {
+            logger.error("Error recording rewards of match {}, crediting directly: {}", matchId, e.getMessage());
+            pendingMatchCredits.remove(creditKey);
+            return addCoinsBatch(credits);
+        }
+
+        DomainEvent event = new DomainEvent(UUID.randomUUID().toString(), EventTypes.MATCH_COMPLETED, matchId, payload, Instant.now());
+        CompletableFuture.runAsync(() -> awardOutbox.append(event), outboxWriter)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        // Without the outbox the rewards can only be credited directly, as before
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        logger.error("Error recording rewards of match {}, crediting directly: {}", matchId, cause.getMessage());
+                        pendingMatchCredits.remove(creditKey, credited);
+                        addCoinsBatch(credits).thenAccept(credited::complete);
+                    } else if (awardDispatcher != null) {
+                        awardDispatcher.execute(this::dispatchPendingAwards);
+                    }
+                });
+
+        return credited.completeOnTimeout(Map.of(), awardTimeoutSeconds, TimeUnit.SECONDS)
+                .whenComplete((balances, e) -> {
+                    pendingMatchCredits.remove(creditKey, credited);
+                    if (balances != null && balances.isEmpty()) {
+                        logger.warn("No confirmation for rewards of match {} within {}s", matchId, awardTimeoutSeconds);
+                    }
+                });
+    }
+
+    /**
+     * Delivers the recorded match rewards as batch credits, keyed by match so a delivery that
+     * is repeated after a timeout or restart is not credited twice. Stops at the first
+     * failure and leaves the remaining awards for the next run.
+     */
+    private void dispatchPendingAwards() {
+        List<DomainEvent> pendingAwards = awardOutbox.findUnpublished(awardBatchSize);
+
+        for (DomainEvent event : pendingAwards) {
+            if (!EventTypes.MATCH_COMPLETED.equals(event.type())) {
+                continue;
+            }
 
             try {
-                Integer coinsAwarded = future.get(); // Wait for the async operation to complete
-
-                if (coinsAwarded != null) {
-                    coinResults.put(username, coinsAwarded);
-                    logger.info("Awarded {} coins to player {} (rank {})", coinsAwarded, username, rank);
-                } else {
-                    coinResults.put(username, 0);
-                    logger.warn("Failed to award coins to player {} (rank {})", username, rank);
+                MatchCompletedEvent match = objectMapper.readValue(event.payload(), MatchCompletedEvent.class);
+                Map<String, Integer> balances = postBatchCredit(match.awards(), matchCreditKey(match.matchId()));
+
+                awardOutbox.markPublished(List.of(event.id()));
+                completeMatchCredit(matchCreditKey(match.matchId()), balances != null ? balances : Map.of());
+                logger.info("Delivered rewards of match {} to {} players", match.matchId(), match.awards().size());
+            } catch (JsonProcessingException e) {
+                logger.error("Dropping unreadable award {}: {}", event.id(), e.getMessage());
+                awardOutbox.markPublished(List.of(event.id()));
+            } catch (RestClientResponseException e) {
+                if (e.getStatusCode().is4xxClientError()) {
+                    // Rejected by the wallet, retrying would not change the outcome
+                    logger.error("Wallet rejected award {}, dropping it: HTTP {}", event.id(), e.getStatusCode());
+                    awardOutbox.markPublished(List.of(event.id()));
+                    continue;
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Interrupted while awarding coins to player {}: {}", username, e.getMessage());
-                coinResults.put(username, 0);
+                logger.warn("Wallet unavailable, {} awards pending: HTTP {}", pendingAwards.size(), e.getStatusCode());
+                return;
             } catch (Exception e) {
-                logger.error("Error processing coin award for {}: {}", username, e.getMessage());
-                coinResults.put(username, 0);
+                logger.warn("Wallet unavailable, {} awards pending: {}", pendingAwards.size(), e.getMessage());
+                return;
             }
-        });
+        }
+    }
+
+    /**
+     * Completes the awards of matches played on this instance, other credits are ignored.
+     */
+    public void onCoinsCredited(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            try {
+                CoinsCreditedEvent credit = objectMapper.readValue(event.payload(), CoinsCreditedEvent.class);
+                if (credit.requestKey() != null && credit.balances() != null) {
+                    Map<String, Integer> balances = new HashMap<>();
+                    credit.balances().forEach(balance -> balances.put(balance.username(), balance.coins()));
+                    completeMatchCredit(credit.requestKey(), balances);
+                }
+            } catch (JsonProcessingException e) {
+                logger.error("Skipping malformed {} event {}: {}", event.type(), event.id(), e.getMessage());
+            }
+        }
+    }
+
+    private void completeMatchCredit(String creditKey, Map<String, Integer> balances) {
+        CompletableFuture<Map<String, Integer>> pending = pendingMatchCredits.remove(creditKey);
+        if (pending != null) {
+            pending.complete(balances);
+        }
+    }
 
-        return coinResults;
+    private static String matchCreditKey(String matchId) {
+        return "match:" + matchId;
+    }
+
+    private CoinAward toCoinAward(String username, int rank, Integer totalCoins) {
+        int reward = getRewardForRank(rank);
+
+        if (totalCoins == null) {
+            if (reward > 0) {
+                logger.warn("Failed to award coins to player {} (rank {})", username, rank);
+            }
+            return new CoinAward(username, rank, 0, null, false);
+        }
+
+        logger.info("Awarded {} coins to player {} (rank {})", reward, username, rank);
+        return new CoinAward(username, rank, reward, totalCoins, true);
     }
 
     public CompletableFuture<Integer> addCoins(String username, int amount) {
@@ -148,6 +381,15 @@ public class CoinService {
                 logger.error("Error adding {} coins to player {}: {}", amount, username, e.getMessage());
                 return null;
             }
-        });
+        }, executorService);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdown();
+        outboxWriter.shutdown();
+        if (awardDispatcher != null) {
+            awardDispatcher.shutdown();
+        }
     }
 }
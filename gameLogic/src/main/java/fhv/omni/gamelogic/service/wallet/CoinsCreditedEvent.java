@@ -0,0 +1,12 @@
+package fhv.omni.gamelogic.service.wallet;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CoinsCreditedEvent(
+        String requestKey,
+        List<CoinsResponse> balances
+) {
+}
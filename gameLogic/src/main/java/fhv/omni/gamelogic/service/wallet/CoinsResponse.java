@@ -0,0 +1,10 @@
+package fhv.omni.gamelogic.service.wallet;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CoinsResponse(
+        String username,
+        Integer coins
+) {
+}
@@ -0,0 +1,9 @@
+package fhv.omni.gamelogic.service.wallet;
+
+import java.util.List;
+
+public record MatchCompletedEvent(
+        String matchId,
+        List<CoinCredit> awards
+) {
+}
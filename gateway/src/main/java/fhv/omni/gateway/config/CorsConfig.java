@@ -0,0 +1,25 @@
+package fhv.omni.gateway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * CORS for the endpoints the gateway answers itself, routed requests get it from the services.
+ */
+@Configuration
+public class CorsConfig implements WebFluxConfigurer {
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/api/menu")
+                .allowedOrigins("http://localhost:5173", "http://localhost:4173", "https://omni.jware.at")
+                .allowedMethods("GET", "OPTIONS")
+                .allowedHeaders("*")
+                .allowCredentials(true);
+        registry.addMapping("/api/game/route")
+                .allowedOrigins("http://localhost:5173", "http://localhost:4173", "https://omni.jware.at")
+                .allowedMethods("POST", "OPTIONS")
+                .allowedHeaders("*")
+                .allowCredentials(true);
+    }
+}
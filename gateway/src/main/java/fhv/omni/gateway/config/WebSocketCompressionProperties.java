@@ -0,0 +1,22 @@
+package fhv.omni.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * permessage-deflate between browsers and the proxied {@code /game} route
+ * ({@code gateway.websocket.compression.*}). The leg to the game servers stays uncompressed.
+ *
+ * @param enabled               Whether the gateway accepts permessage-deflate from clients
+ * @param serverContextTakeover Whether the gateway keeps its compression window between frames;
+ *                              when off it accepts clients asking for server_no_context_takeover
+ * @param clientContextTakeover Whether clients may keep their compression window between frames;
+ *                              when off the gateway asks for client_no_context_takeover
+ */
+@ConfigurationProperties("gateway.websocket.compression")
+public record WebSocketCompressionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("true") boolean serverContextTakeover,
+        @DefaultValue("true") boolean clientContextTakeover
+) {
+}
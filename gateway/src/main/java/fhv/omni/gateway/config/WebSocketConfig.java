@@ -1,13 +1,44 @@
 package fhv.omni.gateway.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.server.WebsocketServerSpec;
 
 @Configuration
+@EnableConfigurationProperties(WebSocketCompressionProperties.class)
 public class WebSocketConfig {
 
+    /**
+     * Replaces the upgrade strategy of the gateway to negotiate permessage-deflate with clients.
+     * game_state, npc_update and player_list repeat the same keys many times a second, so they
+     * compress well. The frame limit and ping handling of {@code spring.cloud.gateway.httpclient.websocket.*}
+     * still apply.
+     */
+    @Bean
+    @Primary
+    public ReactorNettyRequestUpgradeStrategy compressingRequestUpgradeStrategy(HttpClientProperties httpClientProperties,
+                                                                               WebSocketCompressionProperties compression) {
+        HttpClientProperties.Websocket websocket = httpClientProperties.getWebsocket();
+
+        return new ReactorNettyRequestUpgradeStrategy(() -> {
+            WebsocketServerSpec.Builder builder = WebsocketServerSpec.builder()
+                    .handlePing(websocket.isProxyPing())
+                    .compress(compression.enabled())
+                    .compressionAllowServerNoContext(!compression.serverContextTakeover())
+                    .compressionPreferredClientNoContext(!compression.clientContextTakeover());
+            if (websocket.getMaxFramePayloadLength() != null) {
+                builder.maxFramePayloadLength(websocket.getMaxFramePayloadLength());
+            }
+            return builder;
+        });
+    }
+
     @Bean
     public GlobalFilter webSocketSessionFilter() {
         return (exchange, chain) -> {
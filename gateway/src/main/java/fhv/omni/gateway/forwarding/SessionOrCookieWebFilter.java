@@ -1,49 +1,89 @@
 package fhv.omni.gateway.forwarding;
 
+import fhv.omni.gateway.session.SessionValidator;
+import fhv.omni.gateway.session.ValidatedSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.cors.reactive.CorsUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 import reactor.util.annotation.NonNull;
 
+import java.util.List;
+import java.util.Optional;
+
 @Component
+// Ahead of the endpoint rate limiter, which keys validated players by their user
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 public class SessionOrCookieWebFilter implements WebFilter {
 
+    /**
+     * Username of the validated session. Downstream services trust it instead of loading the
+     * session themselves, so it is always stripped from incoming requests first.
+     */
+    public static final String USER_HEADER = "X-Omni-User";
+
     private static final String SESSION_COOKIE_NAME = "SESSION";
 
+    private final SessionValidator sessionValidator;
+    private final List<String> publicPaths;
+
+    public SessionOrCookieWebFilter(SessionValidator sessionValidator,
+                                    @Value("${gateway.public-paths:/login,/register,/availability}") List<String> publicPaths) {
+        this.sessionValidator = sessionValidator;
+        this.publicPaths = publicPaths;
+    }
+
     @Override
     @NonNull
     public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
-        // Allow WebSocket upgrade requests to pass through without session validation
+        ServerWebExchange stripped = exchange.mutate()
+                .request(exchange.getRequest().mutate()
+                        .headers(headers -> headers.remove(USER_HEADER))
+                        .build())
+                .build();
+
+        // WebSocket upgrades are authenticated by the game server with the signed game ticket
         boolean isWebSocketUpgrade = "websocket".equalsIgnoreCase(
                 exchange.getRequest().getHeaders().getFirst("Upgrade"));
 
-        if (isWebSocketUpgrade) {
-            // For WebSocket connections, still check for session but don't block if missing
-            // This helps with connection state tracking
-            boolean hasSessionCookie = exchange.getRequest()
-                    .getCookies()
-                    .getFirst(SESSION_COOKIE_NAME) != null;
-
-            if (!hasSessionCookie) {
-                // Log for debugging but allow connection
-                System.out.println("WebSocket connection without session cookie - allowing but logging");
-            }
+        // CORS preflights carry no cookies, they are answered by the CORS handling behind this filter
+        if (isWebSocketUpgrade
+                || CorsUtils.isPreFlightRequest(exchange.getRequest())
+                || publicPaths.contains(exchange.getRequest().getPath().value())) {
+            return chain.filter(stripped);
+        }
 
-            return chain.filter(exchange);
+        HttpCookie sessionCookie = exchange.getRequest().getCookies().getFirst(SESSION_COOKIE_NAME);
+        if (sessionCookie == null) {
+            return reject(exchange);
         }
 
-        boolean hasSessionCookie = exchange.getRequest()
-                .getCookies()
-                .getFirst(SESSION_COOKIE_NAME) != null;
+        // The chain completes empty, so the missing session is mapped before forwarding
+        return sessionValidator.validate(sessionCookie.getValue())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(session -> session
+                        .map(validated -> forward(stripped, validated, chain))
+                        .orElseGet(() -> reject(exchange)));
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, ValidatedSession session, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .header(USER_HEADER, session.username())
+                .build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
 
-        if (hasSessionCookie) {
-            return chain.filter(exchange);
-        } else {
-            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
-            return exchange.getResponse().setComplete();
-        }
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+        return exchange.getResponse().setComplete();
     }
 }
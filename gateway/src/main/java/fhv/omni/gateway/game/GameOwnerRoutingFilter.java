@@ -0,0 +1,64 @@
+package fhv.omni.gateway.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Proxies the {@code /game} route to the node that owns the requested map, chosen like
+ * {@link GameRoutingService} does for direct connections. Otherwise clients that fall back to
+ * the proxied route would end up in another room instance than the players connected directly.
+ * Without configured nodes or a map parameter the route's own URI is kept.
+ */
+@Component
+public class GameOwnerRoutingFilter implements GlobalFilter, Ordered {
+
+    private final Logger logger = LoggerFactory.getLogger(GameOwnerRoutingFilter.class);
+    private final GameRoutingService gameRoutingService;
+    private final GameRoutingProperties properties;
+
+    public GameOwnerRoutingFilter(GameRoutingService gameRoutingService, GameRoutingProperties properties) {
+        this.gameRoutingService = gameRoutingService;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !properties.routeId().equals(route.getId())) {
+            return chain.filter(exchange);
+        }
+
+        String mapId = exchange.getRequest().getQueryParams().getFirst("map");
+        if (mapId == null) {
+            return chain.filter(exchange);
+        }
+
+        gameRoutingService.ownerOf(mapId).ifPresent(node -> {
+            URI target = UriComponentsBuilder.fromUriString(node.proxyUrl())
+                    .replaceQuery(exchange.getRequest().getURI().getRawQuery())
+                    .build(true)
+                    .toUri();
+            logger.debug("Proxying map {} to node {}", mapId, node.id());
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, target);
+        });
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        // After the route URI has been resolved, before the WebSocket routing filter uses it
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+}
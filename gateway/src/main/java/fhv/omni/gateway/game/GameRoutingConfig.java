@@ -0,0 +1,9 @@
+package fhv.omni.gateway.game;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GameRoutingProperties.class)
+public class GameRoutingConfig {
+}
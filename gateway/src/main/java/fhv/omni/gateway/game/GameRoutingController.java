@@ -0,0 +1,37 @@
+package fhv.omni.gateway.game;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+public class GameRoutingController {
+
+    private final GameRoutingService gameRoutingService;
+
+    public GameRoutingController(GameRoutingService gameRoutingService) {
+        this.gameRoutingService = gameRoutingService;
+    }
+
+    /**
+     * Tells the client where to open its game socket. If no node can be chosen or no ticket be
+     * issued, the client is told to use the proxied {@code /game} route instead.
+     */
+    @PostMapping(value = "/api/game/route", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> route(@RequestParam("map") String mapId,
+                                                           @RequestHeader(HttpHeaders.COOKIE) String cookie) {
+        return gameRoutingService.route(mapId, cookie)
+                .defaultIfEmpty(Map.of("mode", "proxied"))
+                .map(route -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .body(route));
+    }
+}
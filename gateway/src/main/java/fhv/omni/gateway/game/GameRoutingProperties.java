@@ -0,0 +1,38 @@
+package fhv.omni.gateway.game;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Direct connections to the game servers ({@code gateway.game.*}).
+ *
+ * @param direct  Whether clients are sent straight to the owning node; otherwise they use the
+ *                proxied {@code /game} route. Only enable it where the node URLs are reachable
+ *                from the client, e.g. wss:// addresses for an https page
+ * @param timeout Timeout of the ticket request to auth
+ * @param routeId Id of the proxied {@code /game} route, which is sent to the owning node as well
+ * @param nodes   Game server nodes with the WebSocket address clients can reach them at
+ */
+@ConfigurationProperties("gateway.game")
+public record GameRoutingProperties(
+        @DefaultValue("false") boolean direct,
+        @DefaultValue("2s") Duration timeout,
+        @DefaultValue("game-websocket") String routeId,
+        List<Node> nodes
+) {
+    /**
+     * @param id       Stable name of the node, rooms are assigned by it
+     * @param url      Public WebSocket URL of the node's game endpoint
+     * @param proxyUrl WebSocket URL the gateway proxies the {@code /game} route to, defaults to {@code url}
+     */
+    public record Node(String id, String url, String proxyUrl) {
+        public Node {
+            if (proxyUrl == null || proxyUrl.isBlank()) {
+                proxyUrl = url;
+            }
+        }
+    }
+}
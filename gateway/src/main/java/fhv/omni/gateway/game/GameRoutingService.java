@@ -0,0 +1,107 @@
+package fhv.omni.gateway.game;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sends clients straight to the game server that owns their room, so game frames no longer
+ * pass through the gateway. Rooms are assigned to nodes by rendezvous hashing of the map id,
+ * which keeps every room on one node and moves only the rooms of a node that is added or
+ * removed. The client authenticates at the node with a game ticket that auth issues for the
+ * session making this request. Clients on the proxied route are sent to the same owner by
+ * {@link GameOwnerRoutingFilter}.
+ */
+@Service
+public class GameRoutingService {
+
+    private final Logger logger = LoggerFactory.getLogger(GameRoutingService.class);
+    private final GameRoutingProperties properties;
+    private final WebClient authClient;
+
+    public GameRoutingService(GameRoutingProperties properties,
+                              WebClient.Builder webClientBuilder,
+                              @Value("${services.auth.url:http://localhost:8080}") String authServiceUrl) {
+        this.properties = properties;
+        this.authClient = webClientBuilder.clone().baseUrl(authServiceUrl).build();
+    }
+
+    /**
+     * @param mapId  Map the player wants to join
+     * @param cookie Cookie header of the request, passed to auth to issue the ticket
+     * @return Node address and ticket, or empty if the client should use the proxied route
+     */
+    public Mono<Map<String, Object>> route(String mapId, String cookie) {
+        Optional<GameRoutingProperties.Node> node = ownerOf(mapId);
+        if (!properties.direct() || node.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return authClient.post()
+                .uri("/game-ticket")
+                .header(HttpHeaders.COOKIE, cookie)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(properties.timeout())
+                .<Map<String, Object>>map(ticket -> {
+                    Map<String, Object> route = new LinkedHashMap<>();
+                    route.put("mode", "direct");
+                    route.put("nodeId", node.get().id());
+                    route.put("url", node.get().url());
+                    route.put("ticket", ticket.path("ticket").asText());
+                    route.put("expiresIn", ticket.path("expiresIn").asLong());
+                    return route;
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Could not route player to map {} directly: {}", mapId, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    Optional<GameRoutingProperties.Node> ownerOf(String mapId) {
+        List<GameRoutingProperties.Node> nodes = properties.nodes();
+        if (nodes == null || nodes.isEmpty()) {
+            return Optional.empty();
+        }
+
+        GameRoutingProperties.Node owner = null;
+        long bestScore = Long.MIN_VALUE;
+        for (GameRoutingProperties.Node node : nodes) {
+            long score = score(node.id(), mapId);
+            if (owner == null || score > bestScore) {
+                owner = node;
+                bestScore = score;
+            }
+        }
+        return Optional.of(owner);
+    }
+
+    /**
+     * 64-bit FNV-1a of node and map id with a murmur3 finalizer.
+     */
+    private static long score(String nodeId, String mapId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (nodeId + "|" + mapId).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53e94ebL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
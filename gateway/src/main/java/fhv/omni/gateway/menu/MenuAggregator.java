@@ -0,0 +1,82 @@
+package fhv.omni.gateway.menu;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import fhv.omni.gateway.forwarding.SessionOrCookieWebFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Collects everything the main menu shows in one round trip for the client. The wallet and
+ * shop calls run in parallel, each with its own timeout; a part that fails or times out is
+ * left out and listed under {@code missing}, so the menu can still show the rest.
+ */
+@Service
+public class MenuAggregator {
+
+    private final Logger logger = LoggerFactory.getLogger(MenuAggregator.class);
+    private final WebClient shopClient;
+    private final WebClient walletClient;
+    private final Duration timeout;
+
+    public MenuAggregator(WebClient.Builder webClientBuilder,
+                          @Value("${services.shop.url:http://localhost:8084}") String shopServiceUrl,
+                          @Value("${services.wallet.url:http://localhost:8083}") String walletServiceUrl,
+                          @Value("${gateway.menu.timeout:2s}") Duration timeout) {
+        this.shopClient = webClientBuilder.clone().baseUrl(shopServiceUrl).build();
+        this.walletClient = webClientBuilder.clone().baseUrl(walletServiceUrl).build();
+        this.timeout = timeout;
+    }
+
+    public Mono<Map<String, Object>> aggregate(String username) {
+        return Mono.zip(
+                fetch(walletClient, username, "/api/wallet/{username}/coins", username),
+                fetch(shopClient, username, "/api/shop/items?username={username}", username),
+                fetch(shopClient, username, "/api/shop/unlocks/{username}", username),
+                fetch(shopClient, username, "/api/shop/preferences/{username}", username)
+        ).map(parts -> {
+            Map<String, Object> menu = new LinkedHashMap<>();
+            List<String> missing = new ArrayList<>();
+            menu.put("username", username);
+            put(menu, missing, "wallet", parts.getT1());
+            put(menu, missing, "items", parts.getT2());
+            put(menu, missing, "unlocks", parts.getT3());
+            put(menu, missing, "preferences", parts.getT4());
+            menu.put("missing", missing);
+            return menu;
+        });
+    }
+
+    private Mono<Optional<JsonNode>> fetch(WebClient client, String username, String uri, Object... uriVariables) {
+        return client.get()
+                .uri(uri, uriVariables)
+                .header(SessionOrCookieWebFilter.USER_HEADER, username)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> {
+                    logger.warn("Menu call {} for {} failed: {}", uri, username, e.toString());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private static void put(Map<String, Object> menu, List<String> missing, String part, Optional<JsonNode> value) {
+        if (value.isPresent()) {
+            menu.put(part, value.get());
+        } else {
+            missing.add(part);
+        }
+    }
+}
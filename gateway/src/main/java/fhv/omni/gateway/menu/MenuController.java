@@ -0,0 +1,34 @@
+package fhv.omni.gateway.menu;
+
+import fhv.omni.gateway.forwarding.SessionOrCookieWebFilter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+public class MenuController {
+
+    private final MenuAggregator menuAggregator;
+
+    public MenuController(MenuAggregator menuAggregator) {
+        this.menuAggregator = menuAggregator;
+    }
+
+    /**
+     * The player is taken from the validated session, so this replaces the call to /me as well.
+     */
+    @GetMapping(value = "/api/menu", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> getMenu(
+            @RequestHeader(SessionOrCookieWebFilter.USER_HEADER) String username) {
+        return menuAggregator.aggregate(username)
+                .map(menu -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .body(menu));
+    }
+}
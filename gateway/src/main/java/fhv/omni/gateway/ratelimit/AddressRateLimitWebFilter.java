@@ -0,0 +1,36 @@
+package fhv.omni.gateway.ratelimit;
+
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.NonNull;
+
+/**
+ * Limits every address before anything else runs, in particular before the session lookup.
+ * Requests without a valid session are rejected by the session filter before they reach the
+ * route and endpoint limiters, so without this a flood of missing or forged cookies would
+ * cost a Redis lookup each and never be limited.
+ */
+@Component
+public class AddressRateLimitWebFilter implements WebFilter, Ordered {
+
+    private final RateLimiter rateLimiter;
+
+    public AddressRateLimitWebFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        return rateLimiter.limitByAddress(exchange, Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,46 @@
+package fhv.omni.gateway.ratelimit;
+
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.annotation.NonNull;
+
+import java.util.Map;
+
+/**
+ * Applies the {@link RateLimiter} to the endpoints the gateway answers itself, such as
+ * {@code /api/menu}. They are not routes, so {@link RateLimitFilter} never sees them.
+ * Each endpoint is limited under its name in {@code gateway.rate-limit.endpoints}.
+ */
+@Component
+public class EndpointRateLimitWebFilter implements WebFilter, Ordered {
+
+    private final RateLimiter rateLimiter;
+    private final Map<String, String> endpoints;
+
+    public EndpointRateLimitWebFilter(RateLimiter rateLimiter, RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.endpoints = properties.endpoints() != null ? properties.endpoints() : Map.of();
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+            if (endpoint.getValue().equals(path)) {
+                return rateLimiter.limit(exchange, endpoint.getKey(), Mono.defer(() -> chain.filter(exchange)));
+            }
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        // After the session filter, so validated players are limited by their user
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
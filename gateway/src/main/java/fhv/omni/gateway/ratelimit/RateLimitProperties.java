@@ -0,0 +1,43 @@
+package fhv.omni.gateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Token bucket limits of the gateway ({@code gateway.rate-limit.*}).
+ *
+ * @param enabled           Whether requests are limited at all
+ * @param maxKeys           Number of buckets kept in memory, idle ones are dropped beyond it
+ * @param trustForwardedFor Whether to key anonymous clients by the first X-Forwarded-For
+ *                          address, only safe behind a proxy that sets it
+ * @param defaultLimit      Limit of routes without their own entry
+ * @param addressLimit      Limit of every address across all requests, checked before the session
+ * @param routes            Limits by route id, or by endpoint name for the gateway's own endpoints
+ * @param endpoints         Paths of the gateway's own endpoints by name
+ */
+@ConfigurationProperties("gateway.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maxKeys,
+        @DefaultValue("false") boolean trustForwardedFor,
+        @DefaultValue Limit defaultLimit,
+        @DefaultValue Limit addressLimit,
+        Map<String, Limit> routes,
+        Map<String, String> endpoints
+) {
+    public Limit limitFor(String routeId) {
+        return routes != null && routeId != null ? routes.getOrDefault(routeId, defaultLimit) : defaultLimit;
+    }
+
+    /**
+     * @param capacity        Requests a client may burst
+     * @param refillPerSecond Requests per second a client may sustain
+     */
+    public record Limit(
+            @DefaultValue("60") int capacity,
+            @DefaultValue("20") double refillPerSecond
+    ) {
+    }
+}
@@ -0,0 +1,159 @@
+package fhv.omni.gateway.ratelimit;
+
+import fhv.omni.gateway.forwarding.SessionOrCookieWebFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits every client to its token bucket per route, in memory and without a Redis round trip.
+ * Used for the proxied routes by {@link RateLimitFilter} and for the gateway's own endpoints by
+ * {@link EndpointRateLimitWebFilter}, and per address ahead of session validation by
+ * {@link AddressRateLimitWebFilter}.
+ * <p>
+ * Clients are told apart by the user of their validated session, or by their address if they
+ * have none; an unvalidated cookie is not used since a client could simply rotate it.
+ * Buckets live in a bounded map. When it is full, one request evicts down to 90% of its size,
+ * full buckets first since a full bucket is no different from a new one, so the scan is shared
+ * by the next tenth of new clients instead of repeated for each of them.
+ */
+@Component
+public class RateLimiter {
+
+    private static final long MAX_RETRY_AFTER_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final double EVICTION_TARGET = 0.9;
+    // Route id of the address buckets in keys and metrics
+    private static final String ADDRESS_ROUTE = "address";
+
+    private final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.rate_limit.buckets", buckets, Map::size)
+                .description("Clients with a token bucket in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the client's bucket for the route and continues with {@code next}, or
+     * answers with 429 and Retry-After if the bucket is empty.
+     */
+    public Mono<Void> limit(ServerWebExchange exchange, String routeId, Mono<Void> next) {
+        if (!properties.enabled()) {
+            return next;
+        }
+        return limit(exchange, routeId, properties.limitFor(routeId), clientKey(exchange.getRequest()), next);
+    }
+
+    /**
+     * Like {@link #limit}, but keyed by the client's address alone under {@code gateway.rate-limit.address-limit},
+     * for requests whose user header has not been checked yet.
+     */
+    public Mono<Void> limitByAddress(ServerWebExchange exchange, Mono<Void> next) {
+        if (!properties.enabled()) {
+            return next;
+        }
+        return limit(exchange, ADDRESS_ROUTE, properties.addressLimit(), addressKey(exchange.getRequest()), next);
+    }
+
+    private Mono<Void> limit(ServerWebExchange exchange, String routeId, RateLimitProperties.Limit limit,
+                             String clientKey, Mono<Void> next) {
+        long now = System.nanoTime();
+        String key = routeId + "|" + clientKey;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            evictIfFull(now);
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), now));
+        }
+
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            counter(routeId, "allowed").increment();
+            return next;
+        }
+
+        counter(routeId, "rejected").increment();
+        logger.debug("Rate limited {} on route {}", key, routeId);
+
+        long retryAfterSeconds = Math.max(1, (Math.min(waitNanos, MAX_RETRY_AFTER_NANOS) + 999_999_999L) / 1_000_000_000L);
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    private String clientKey(ServerHttpRequest request) {
+        String user = request.getHeaders().getFirst(SessionOrCookieWebFilter.USER_HEADER);
+        if (user != null) {
+            return "user:" + user;
+        }
+        return addressKey(request);
+    }
+
+    private String addressKey(ServerHttpRequest request) {
+        if (properties.trustForwardedFor()) {
+            String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return "ip:" + forwardedFor.split(",")[0].trim();
+            }
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return "ip:" + (remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : "unknown");
+    }
+
+    private void evictIfFull(long now) {
+        // Requests arriving during an eviction insert anyway, the map briefly grows past its size
+        if (buckets.size() < properties.maxKeys() || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int target = (int) (properties.maxKeys() * EVICTION_TARGET);
+
+            Iterator<TokenBucket> values = buckets.values().iterator();
+            while (buckets.size() > target && values.hasNext()) {
+                if (values.next().isFull(now)) {
+                    values.remove();
+                }
+            }
+
+            // Every client is busy, drop arbitrary buckets rather than grow without bound
+            Iterator<String> keys = buckets.keySet().iterator();
+            while (buckets.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return counters.computeIfAbsent(routeId + "|" + outcome, k -> Counter.builder("gateway.rate_limit.requests")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .description("Requests checked by the rate limiter")
+                .register(meterRegistry));
+    }
+}
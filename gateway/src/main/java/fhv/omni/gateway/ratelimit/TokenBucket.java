@@ -0,0 +1,53 @@
+package fhv.omni.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket. Tokens are not refilled by a timer but computed from the time
+ * elapsed since the last request, so idle buckets cost nothing.
+ */
+class TokenBucket {
+    private final double capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if the request may pass, otherwise the nanoseconds until a token is available
+     */
+    long tryConsume(long now) {
+        while (true) {
+            State current = state.get();
+            double tokens = tokensAt(current, now);
+
+            if (tokens < 1) {
+                return refillPerNano > 0 ? (long) Math.ceil((1 - tokens) / refillPerNano) : Long.MAX_VALUE;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A full bucket behaves like a new one, so it can be dropped without changing any limit.
+     */
+    boolean isFull(long now) {
+        return tokensAt(state.get(), now) >= capacity;
+    }
+
+    private double tokensAt(State current, long now) {
+        long elapsed = Math.max(0, now - current.updatedAt());
+        return Math.min(capacity, current.tokens() + elapsed * refillPerNano);
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+}
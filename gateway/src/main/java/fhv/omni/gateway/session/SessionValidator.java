@@ -0,0 +1,119 @@
+package fhv.omni.gateway.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Checks session cookies against the sessions auth keeps in Redis, without blocking and
+ * without deserializing the stored security context. Only the expiry fields and the principal
+ * name are read, in a single HMGET. Sessions found valid are cached for a short time so bursts
+ * of requests from one client cost one Redis call.
+ */
+@Component
+public class SessionValidator {
+    // Field names of the hash written by Spring Session's RedisIndexedSessionRepository
+    private static final String LAST_ACCESSED_TIME = "lastAccessedTime";
+    private static final String MAX_INACTIVE_INTERVAL = "maxInactiveInterval";
+    private static final String PRINCIPAL_NAME =
+            "sessionAttr:org.springframework.session.FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME";
+    private static final List<String> FIELDS = List.of(LAST_ACCESSED_TIME, MAX_INACTIVE_INTERVAL, PRINCIPAL_NAME);
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final Logger logger = LoggerFactory.getLogger(SessionValidator.class);
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final SessionValues sessionValues;
+    private final String sessionsKeyPrefix;
+    private final ValidatedSessionCache cache;
+
+    public SessionValidator(ReactiveRedisConnectionFactory connectionFactory,
+                            ObjectMapper objectMapper,
+                            @Value("${spring.session.redis.namespace:spring:omni:session}") String namespace,
+                            @Value("${gateway.session-cache.ttl:5s}") Duration cacheTtl,
+                            @Value("${gateway.session-cache.max-size:10000}") int cacheMaxSize) {
+        // Values are read as raw bytes, auth writes them in a binary format
+        this.redisTemplate = new ReactiveRedisTemplate<>(connectionFactory,
+                RedisSerializationContext.<String, byte[]>newSerializationContext(RedisSerializer.string())
+                        .value(RedisSerializer.byteArray())
+                        .hashKey(RedisSerializer.string())
+                        .hashValue(RedisSerializer.byteArray())
+                        .build());
+        this.sessionValues = new SessionValues(objectMapper);
+        this.sessionsKeyPrefix = namespace + ":sessions:";
+        this.cache = new ValidatedSessionCache(cacheTtl.toMillis(), cacheMaxSize);
+    }
+
+    /**
+     * Resolves the session behind a {@code SESSION} cookie value.
+     *
+     * @return The session, or an empty Mono if it is unknown, expired or not logged in
+     */
+    public Mono<ValidatedSession> validate(String cookieValue) {
+        String sessionId = decodeSessionId(cookieValue);
+        if (sessionId == null) {
+            return Mono.empty();
+        }
+
+        return cache.get(sessionId)
+                .map(Mono::just)
+                .orElseGet(() -> loadSession(sessionId).doOnNext(cache::put));
+    }
+
+    private Mono<ValidatedSession> loadSession(String sessionId) {
+        return redisTemplate.<String, byte[]>opsForHash()
+                .multiGet(sessionsKeyPrefix + sessionId, FIELDS)
+                .flatMap(values -> Mono.justOrEmpty(toSession(sessionId, values)))
+                .onErrorResume(e -> {
+                    // Fail closed, a request we cannot verify is not forwarded
+                    logger.error("Error validating session: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private ValidatedSession toSession(String sessionId, List<byte[]> values) {
+        if (values.size() != FIELDS.size() || values.contains(null)) {
+            return null;
+        }
+
+        try {
+            long lastAccessedTime = sessionValues.readLong(values.get(0));
+            long maxInactiveSeconds = sessionValues.readLong(values.get(1));
+            String username = sessionValues.readString(values.get(2));
+
+            long expiresAt = lastAccessedTime + Duration.ofSeconds(maxInactiveSeconds).toMillis();
+            if (username.isEmpty() || (maxInactiveSeconds >= 0 && expiresAt < System.currentTimeMillis())) {
+                return null;
+            }
+
+            return new ValidatedSession(sessionId, username, maxInactiveSeconds >= 0 ? expiresAt : Long.MAX_VALUE);
+        } catch (Exception e) {
+            logger.warn("Unreadable session {}: {}", sessionId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The cookie serializer in auth writes the session id Base64 encoded.
+     */
+    private static String decodeSessionId(String cookieValue) {
+        try {
+            String sessionId = new String(Base64.getDecoder().decode(cookieValue), StandardCharsets.UTF_8);
+            return SESSION_ID.matcher(sessionId).matches() ? sessionId : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package fhv.omni.gateway.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fhv.omni.core.microservice.session.CompactSessionFormat;
+
+import java.io.IOException;
+
+/**
+ * Reads the session hash values written by auth, in both formats its serializer produces: the
+ * {@link CompactSessionFormat} and the previous JSON form. Only the value types the gateway
+ * looks at are supported.
+ */
+class SessionValues {
+    private final ObjectMapper objectMapper;
+
+    SessionValues(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    long readLong(byte[] bytes) throws IOException {
+        if (!CompactSessionFormat.isCompact(bytes)) {
+            return objectMapper.readTree(bytes).asLong();
+        }
+        return CompactSessionFormat.readLong(bytes);
+    }
+
+    String readString(byte[] bytes) throws IOException {
+        if (!CompactSessionFormat.isCompact(bytes)) {
+            return objectMapper.readTree(bytes).asText();
+        }
+        return CompactSessionFormat.readString(bytes);
+    }
+}
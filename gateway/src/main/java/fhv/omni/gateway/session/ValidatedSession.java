@@ -0,0 +1,15 @@
+package fhv.omni.gateway.session;
+
+/**
+ * A session that exists in Redis and has not expired.
+ *
+ * @param id        Spring Session id, as stored under {@code <namespace>:sessions:<id>}
+ * @param username  Principal the session was authenticated for
+ * @param expiresAt Epoch millis at which the session expires unless it is used again
+ */
+public record ValidatedSession(
+        String id,
+        String username,
+        long expiresAt
+) {
+}
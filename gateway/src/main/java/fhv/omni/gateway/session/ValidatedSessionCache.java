@@ -0,0 +1,45 @@
+package fhv.omni.gateway.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size-bounded LRU cache of sessions that were recently found valid in Redis. Entries live for
+ * a few seconds at most, which bounds how long a logged-out or expired session is still
+ * accepted, and never beyond the expiry of the session itself.
+ */
+class ValidatedSessionCache {
+    private final long ttlMillis;
+    private final Map<String, ValidatedSession> entries;
+
+    ValidatedSessionCache(long ttlMillis, int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ValidatedSession> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized Optional<ValidatedSession> get(String sessionId) {
+        ValidatedSession session = entries.get(sessionId);
+
+        if (session == null) {
+            return Optional.empty();
+        }
+
+        if (session.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(sessionId);
+            return Optional.empty();
+        }
+
+        return Optional.of(session);
+    }
+
+    synchronized void put(ValidatedSession session) {
+        long expiresAt = Math.min(session.expiresAt(), System.currentTimeMillis() + ttlMillis);
+        entries.put(session.id(), new ValidatedSession(session.id(), session.username(), expiresAt));
+    }
+}
@@ -1,12 +1,18 @@
 package fhv.omni.shop.controller;
 
+import fhv.omni.core.microservice.web.TrustedUserInterceptor;
 import fhv.omni.shop.dto.*;
+import fhv.omni.shop.service.ShopCatalog;
 import fhv.omni.shop.service.ShopService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -19,11 +25,24 @@ import java.util.Map;
 public class ShopController {
     private final ShopService shopService;
 
+    /**
+     * Returns the pre-serialized list of {@link ShopItemDto}s. Supports conditional requests,
+     * the ETag changes with the catalog and with the player's unlocks.
+     */
     @GetMapping("/items")
-    public ResponseEntity<List<ShopItemDto>> getShopItems(@RequestParam String username) {
+    public ResponseEntity<byte[]> getShopItems(@RequestParam String username, WebRequest webRequest) {
         log.info("Getting shop items for user: {}", username);
-        List<ShopItemDto> items = shopService.getShopItems(username);
-        return ResponseEntity.ok(items);
+        ShopCatalog.RenderedItems items = shopService.getShopItems(username);
+
+        if (webRequest.checkNotModified(items.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(items.eTag()).cacheControl(CacheControl.noCache()).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(items.eTag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(items.json());
     }
 
     @GetMapping("/unlocks/{username}")
@@ -34,7 +53,12 @@ public class ShopController {
     }
 
     @PostMapping("/purchase")
-    public ResponseEntity<PurchaseResponse> purchaseItem(@Valid @RequestBody PurchaseRequest request) {
+    public ResponseEntity<PurchaseResponse> purchaseItem(@Valid @RequestBody PurchaseRequest request,
+                                                         @RequestHeader(value = TrustedUserInterceptor.USER_HEADER, required = false) String trustedUser) {
+        if (TrustedUserInterceptor.isOtherUser(trustedUser, request.username())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
         log.info("Purchase request: {} wants to buy {}", request.username(), request.itemId());
 
         try {
@@ -78,6 +102,16 @@ public class ShopController {
         ));
     }
 
+    /**
+     * Selected skin and unlocked maps of several players in one call, used by the game
+     * server when players join a room.
+     */
+    @PostMapping("/entitlements")
+    public ResponseEntity<List<PlayerEntitlementsDto>> getPlayerEntitlements(@Valid @RequestBody EntitlementsRequest request) {
+        log.info("Getting entitlements for {} players", request.usernames().size());
+        return ResponseEntity.ok(shopService.getPlayerEntitlements(request.usernames()));
+    }
+
     @GetMapping("/preferences/{username}")
     public ResponseEntity<PlayerPreferenceDto> getPlayerPreference(@PathVariable String username) {
         log.info("Getting player preference for user: {}", username);
@@ -86,7 +120,12 @@ public class ShopController {
     }
 
     @PostMapping("/preferences")
-    public ResponseEntity<PlayerPreferenceDto> updatePlayerPreference(@Valid @RequestBody UpdatePlayerPreferenceRequest request) {
+    public ResponseEntity<PlayerPreferenceDto> updatePlayerPreference(@Valid @RequestBody UpdatePlayerPreferenceRequest request,
+                                                                      @RequestHeader(value = TrustedUserInterceptor.USER_HEADER, required = false) String trustedUser) {
+        if (TrustedUserInterceptor.isOtherUser(trustedUser, request.username())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
         log.info("Updating player preference: {} wants to select skin {}", request.username(), request.selectedSkin());
 
         try {
@@ -0,0 +1,12 @@
+package fhv.omni.shop.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record EntitlementsRequest(
+        @NotEmpty @Size(max = 100) List<@NotBlank String> usernames
+) {
+}
@@ -0,0 +1,10 @@
+package fhv.omni.shop.dto;
+
+import fhv.omni.shop.enums.ItemType;
+
+public record ItemUnlockedEvent(
+        String username,
+        String itemId,
+        ItemType itemType
+) {
+}
@@ -0,0 +1,12 @@
+package fhv.omni.shop.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record PlayerEntitlementsDto(
+        @NotNull String username,
+        @NotNull String selectedSkin,
+        @NotNull List<String> unlockedMaps
+) {
+}
@@ -0,0 +1,7 @@
+package fhv.omni.shop.dto;
+
+public record WalletChargeRequest(
+        Integer amount,
+        String reason
+) {
+}
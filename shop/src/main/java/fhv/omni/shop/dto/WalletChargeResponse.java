@@ -0,0 +1,13 @@
+package fhv.omni.shop.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record WalletChargeResponse(
+        String username,
+        Boolean success,
+        Integer amount,
+        Integer remainingCoins,
+        String message
+) {
+}
@@ -0,0 +1,10 @@
+package fhv.omni.shop.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record WalletCoinsResponse(
+        String username,
+        Integer coins
+) {
+}
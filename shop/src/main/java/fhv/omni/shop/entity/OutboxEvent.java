@@ -0,0 +1,49 @@
+package fhv.omni.shop.entity;
+
+import fhv.omni.core.microservice.events.DomainEvent;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Event recorded in the same transaction as the change it describes, removed once the
+ * outbox relay has written it to the event stream.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, unique = true)
+    private String eventId;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "event_key")
+    private String eventKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    public OutboxEvent(DomainEvent event) {
+        this.eventId = event.id();
+        this.type = event.type();
+        this.eventKey = event.key();
+        this.payload = event.payload();
+        this.occurredAt = event.occurredAt();
+    }
+
+    public DomainEvent toDomainEvent() {
+        return new DomainEvent(eventId, type, eventKey, payload, occurredAt);
+    }
+}
@@ -0,0 +1,51 @@
+package fhv.omni.shop.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A purchase whose wallet charge had no definite outcome. The charge is re-issued with the same
+ * key until the wallet answers, then the item is unlocked or the purchase dropped. After too many
+ * unanswered attempts the purchase is marked failed and left for manual follow-up.
+ */
+@Entity
+@Table(name = "pending_purchases")
+@Data
+@NoArgsConstructor
+public class PendingPurchase {
+    @Id
+    @Column(name = "charge_key")
+    private String chargeKey;
+
+    @NotNull
+    @Column(nullable = false)
+    private String username;
+
+    @NotNull
+    @Column(name = "item_id", nullable = false)
+    private String itemId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer price;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int attempts;
+
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean failed;
+
+    public PendingPurchase(String chargeKey, String username, String itemId, Integer price) {
+        this.chargeKey = chargeKey;
+        this.username = username;
+        this.itemId = itemId;
+        this.price = price;
+    }
+}
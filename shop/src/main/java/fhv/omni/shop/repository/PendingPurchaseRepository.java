@@ -0,0 +1,34 @@
+package fhv.omni.shop.repository;
+
+import fhv.omni.shop.entity.PendingPurchase;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PendingPurchaseRepository extends JpaRepository<PendingPurchase, String> {
+    List<PendingPurchase> findByFailedFalseOrderByCreatedAt(Pageable pageable);
+
+    /**
+     * @return 1 if this call resolved the purchase, 0 if another instance already did
+     */
+    @Modifying
+    @Query("DELETE FROM PendingPurchase pp WHERE pp.chargeKey = :chargeKey")
+    int deleteByChargeKey(@Param("chargeKey") String chargeKey);
+
+    @Modifying
+    @Query("UPDATE PendingPurchase pp SET pp.attempts = pp.attempts + 1 WHERE pp.chargeKey = :chargeKey")
+    int incrementAttempts(@Param("chargeKey") String chargeKey);
+
+    /**
+     * @return 1 if the purchase reached the attempt limit and is now marked failed
+     */
+    @Modifying
+    @Query("UPDATE PendingPurchase pp SET pp.failed = true WHERE pp.chargeKey = :chargeKey AND pp.attempts >= :maxAttempts")
+    int markFailedAfter(@Param("chargeKey") String chargeKey, @Param("maxAttempts") int maxAttempts);
+}
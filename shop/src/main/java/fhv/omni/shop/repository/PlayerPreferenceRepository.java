@@ -4,11 +4,15 @@ import fhv.omni.shop.entity.PlayerPreference;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PlayerPreferenceRepository extends JpaRepository<PlayerPreference, Long> {
     Optional<PlayerPreference> findByUsername(String username);
 
+    List<PlayerPreference> findByUsernameIn(Collection<String> usernames);
+
     boolean existsByUsername(String username);
 }
@@ -1,11 +1,13 @@
 package fhv.omni.shop.repository;
 
 import fhv.omni.shop.entity.PlayerUnlock;
+import fhv.omni.shop.enums.ItemType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +21,9 @@ public interface PlayerUnlockRepository extends JpaRepository<PlayerUnlock, Long
 
     @Query("SELECT pu.itemId FROM PlayerUnlock pu where pu.username = :username")
     List<String> findUnlockedItemIdsByUsername(@Param("username") String username);
+
+    @Query("SELECT pu FROM PlayerUnlock pu WHERE pu.username IN :usernames " +
+            "AND pu.itemId IN (SELECT si.itemId FROM ShopItem si WHERE si.itemType = :itemType)")
+    List<PlayerUnlock> findByUsernameInAndItemType(@Param("usernames") Collection<String> usernames,
+                                                   @Param("itemType") ItemType itemType);
 }
@@ -0,0 +1,46 @@
+package fhv.omni.shop.service;
+
+import fhv.omni.core.microservice.events.InvalidationChannels;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tells the game servers to drop their cached skin and map unlocks of a player. Failures are
+ * only logged, the game servers' caches expire on their own.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EntitlementInvalidationPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Publishes once the current transaction has committed, or right away outside of one.
+     */
+    public void publishAfterCommit(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(username);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(username);
+            }
+        });
+    }
+
+    private void publish(String username) {
+        try {
+            redisTemplate.convertAndSend(InvalidationChannels.ENTITLEMENTS, username);
+        } catch (Exception e) {
+            log.warn("Failed to publish entitlement change of {}: {}", username, e.getMessage());
+        }
+    }
+}
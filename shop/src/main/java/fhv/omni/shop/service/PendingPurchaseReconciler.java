@@ -0,0 +1,79 @@
+package fhv.omni.shop.service;
+
+import fhv.omni.shop.entity.PendingPurchase;
+import fhv.omni.shop.repository.PendingPurchaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Periodically re-issues the charges of purchases the wallet did not answer, see
+ * {@link ShopService#resolvePendingPurchase}. Every unresolved run counts as an attempt; after
+ * {@code shop.pending-purchases.max-attempts} the purchase is marked failed and no longer retried.
+ */
+@Component
+@Slf4j
+public class PendingPurchaseReconciler {
+    private final PendingPurchaseRepository pendingPurchaseRepository;
+    private final ShopService shopService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public PendingPurchaseReconciler(PendingPurchaseRepository pendingPurchaseRepository,
+                                     ShopService shopService,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${shop.pending-purchases.batch-size:50}") int batchSize,
+                                     @Value("${shop.pending-purchases.max-attempts:20}") int maxAttempts) {
+        this.pendingPurchaseRepository = pendingPurchaseRepository;
+        this.shopService = shopService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Scheduled(initialDelayString = "${shop.pending-purchases.retry-interval-ms:30000}",
+            fixedDelayString = "${shop.pending-purchases.retry-interval-ms:30000}")
+    public void reconcile() {
+        List<PendingPurchase> pending;
+        try {
+            pending = pendingPurchaseRepository.findByFailedFalseOrderByCreatedAt(PageRequest.of(0, batchSize));
+        } catch (Exception e) {
+            log.error("Error loading pending purchases: {}", e.getMessage());
+            return;
+        }
+
+        for (PendingPurchase purchase : pending) {
+            try {
+                if (!shopService.resolvePendingPurchase(purchase)) {
+                    // Still no definite answer, the purchases queued after it are tried regardless
+                    recordUnresolvedAttempt(purchase);
+                }
+            } catch (Exception e) {
+                log.error("Error reconciling pending purchase {}: {}", purchase.getChargeKey(), e.getMessage());
+                recordUnresolvedAttempt(purchase);
+            }
+        }
+    }
+
+    private void recordUnresolvedAttempt(PendingPurchase purchase) {
+        try {
+            Integer failed = transactionTemplate.execute(status -> {
+                pendingPurchaseRepository.incrementAttempts(purchase.getChargeKey());
+                return pendingPurchaseRepository.markFailedAfter(purchase.getChargeKey(), maxAttempts);
+            });
+            if (failed != null && failed > 0) {
+                log.error("Pending purchase of {} by {} for {} coins is still unresolved after {} attempts, "
+                                + "marked failed and needs manual follow-up (charge key {})",
+                        purchase.getItemId(), purchase.getUsername(), purchase.getPrice(), maxAttempts, purchase.getChargeKey());
+            }
+        } catch (Exception e) {
+            log.error("Error recording attempt for pending purchase {}: {}", purchase.getChargeKey(), e.getMessage());
+        }
+    }
+}
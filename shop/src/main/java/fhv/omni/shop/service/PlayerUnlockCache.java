@@ -0,0 +1,50 @@
+package fhv.omni.shop.service;
+
+import fhv.omni.core.microservice.cache.VersionedLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size-bounded LRU of player unlocks as bitsets over the {@link ShopCatalog} ordinals.
+ * <p>
+ * Entries are stamped with the catalog version they were built for and are ignored once the
+ * catalog changes. Purchases invalidate the player's entry; unlocks made through other
+ * instances are picked up once the entry expires. The returned bitsets are shared and must
+ * not be modified.
+ */
+@Component
+public class PlayerUnlockCache {
+    private final VersionedLruCache<String, UnlockBits> cache;
+
+    public PlayerUnlockCache(@Value("${shop.unlock-cache.ttl-seconds:60}") long ttlSeconds,
+                             @Value("${shop.unlock-cache.max-size:10000}") int maxSize) {
+        this.cache = new VersionedLruCache<>(TimeUnit.SECONDS.toMillis(ttlSeconds), maxSize);
+    }
+
+    public Optional<long[]> get(String username, String catalogVersion) {
+        return cache.get(username)
+                .filter(unlocks -> unlocks.catalogVersion().equals(catalogVersion))
+                .map(UnlockBits::bits);
+    }
+
+    /**
+     * Version to pass to {@link #putIfUnchanged}, read before loading the unlocks.
+     */
+    public long version(String username) {
+        return cache.version(username);
+    }
+
+    public void putIfUnchanged(String username, String catalogVersion, long[] bits, long version) {
+        cache.putIfUnchanged(username, new UnlockBits(catalogVersion, bits), version);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    private record UnlockBits(String catalogVersion, long[] bits) {
+    }
+}
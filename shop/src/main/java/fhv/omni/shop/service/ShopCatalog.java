@@ -0,0 +1,155 @@
+package fhv.omni.shop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fhv.omni.shop.dto.ShopItemDto;
+import fhv.omni.shop.entity.ShopItem;
+import fhv.omni.shop.repository.ShopItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * In-memory snapshot of the active shop items. The catalog hardly ever changes, so it is loaded
+ * once, kept pre-sorted and pre-serialized, and only replaced when a refresh finds different
+ * content. Rendering the item list for a player just concatenates the JSON of each item in its
+ * locked or unlocked variant, picked by the player's unlock bitset.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShopCatalog {
+    private final ShopItemRepository shopItemRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), List.of(), List.of(), "empty");
+
+    /**
+     * Reloads the catalog from the database. Called on startup, after the catalog was changed
+     * and periodically to pick up changes made by other instances.
+     */
+    @Scheduled(initialDelayString = "${shop.catalog.refresh-interval-ms:60000}",
+            fixedDelayString = "${shop.catalog.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            Snapshot next = buildSnapshot(shopItemRepository.findByIsActiveTrueOrderByItemTypeAscPriceAsc());
+
+            if (!next.version().equals(snapshot.version())) {
+                snapshot = next;
+                log.info("Shop catalog refreshed with {} items (version {})", next.itemIds().size(), next.version());
+            }
+        } catch (Exception e) {
+            log.error("Error refreshing shop catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The current snapshot. Callers should use one snapshot for a whole request so item
+     * ordinals stay consistent.
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    private Snapshot buildSnapshot(List<ShopItem> items) throws JsonProcessingException {
+        List<String> itemIds = new ArrayList<>(items.size());
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<byte[]> lockedJson = new ArrayList<>(items.size());
+        List<byte[]> unlockedJson = new ArrayList<>(items.size());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        for (ShopItem item : items) {
+            byte[] locked = objectMapper.writeValueAsBytes(ShopItemDto.fromEntity(item, false));
+            ordinals.put(item.getItemId(), itemIds.size());
+            itemIds.add(item.getItemId());
+            lockedJson.add(locked);
+            unlockedJson.add(objectMapper.writeValueAsBytes(ShopItemDto.fromEntity(item, true)));
+            content.writeBytes(locked);
+        }
+
+        return new Snapshot(List.copyOf(itemIds), Map.copyOf(ordinals), List.copyOf(lockedJson), List.copyOf(unlockedJson),
+                DigestUtils.md5DigestAsHex(content.toByteArray()));
+    }
+
+    public record RenderedItems(String eTag, byte[] json) {
+    }
+
+    /**
+     * Immutable version of the catalog. Every item has a dense ordinal, its position in the
+     * sorted item list, so a set of items is a {@code long[]} bitset with one bit per ordinal.
+     * Bitsets are only valid for the snapshot they were built with.
+     */
+    public record Snapshot(List<String> itemIds, Map<String, Integer> ordinals,
+                           List<byte[]> lockedJson, List<byte[]> unlockedJson, String version) {
+
+        public OptionalInt ordinal(String itemId) {
+            Integer ordinal = ordinals.get(itemId);
+            return ordinal != null ? OptionalInt.of(ordinal) : OptionalInt.empty();
+        }
+
+        /**
+         * Builds the bitset of the given items, items not in the catalog are ignored.
+         */
+        public long[] toBits(Collection<String> unlockedItemIds) {
+            long[] bits = new long[(itemIds.size() + 63) >>> 6];
+            for (String itemId : unlockedItemIds) {
+                Integer ordinal = ordinals.get(itemId);
+                if (ordinal != null) {
+                    bits[ordinal >>> 6] |= 1L << ordinal;
+                }
+            }
+            return bits;
+        }
+
+        public List<String> toItemIds(long[] bits) {
+            List<String> unlockedItemIds = new ArrayList<>();
+            for (int i = 0; i < itemIds.size(); i++) {
+                if (isSet(bits, i)) {
+                    unlockedItemIds.add(itemIds.get(i));
+                }
+            }
+            return unlockedItemIds;
+        }
+
+        /**
+         * Renders the item list for a player, the ETag depends on the catalog content and on
+         * exactly which items the player has unlocked.
+         */
+        public RenderedItems render(long[] unlockedBits) {
+            ByteArrayOutputStream json = new ByteArrayOutputStream(estimatedSize());
+            json.write('[');
+            for (int i = 0; i < itemIds.size(); i++) {
+                if (i > 0) {
+                    json.write(',');
+                }
+                json.writeBytes(isSet(unlockedBits, i) ? unlockedJson.get(i) : lockedJson.get(i));
+            }
+            json.write(']');
+
+            StringBuilder eTag = new StringBuilder("\"").append(version);
+            for (long word : unlockedBits) {
+                eTag.append('-').append(Long.toHexString(word));
+            }
+
+            return new RenderedItems(eTag.append('"').toString(), json.toByteArray());
+        }
+
+        public static boolean isSet(long[] bits, int ordinal) {
+            return (bits[ordinal >>> 6] & (1L << ordinal)) != 0;
+        }
+
+        private int estimatedSize() {
+            return unlockedJson.stream().mapToInt(json -> json.length + 1).sum() + 2;
+        }
+    }
+}
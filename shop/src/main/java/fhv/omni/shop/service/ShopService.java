@@ -1,10 +1,14 @@
 package fhv.omni.shop.service;
 
+import fhv.omni.core.microservice.events.EventPublisher;
+import fhv.omni.core.microservice.events.EventTypes;
 import fhv.omni.shop.dto.*;
+import fhv.omni.shop.entity.PendingPurchase;
 import fhv.omni.shop.entity.PlayerPreference;
 import fhv.omni.shop.entity.PlayerUnlock;
 import fhv.omni.shop.entity.ShopItem;
 import fhv.omni.shop.enums.ItemType;
+import fhv.omni.shop.repository.PendingPurchaseRepository;
 import fhv.omni.shop.repository.PlayerPreferenceRepository;
 import fhv.omni.shop.repository.PlayerUnlockRepository;
 import fhv.omni.shop.repository.ShopItemRepository;
@@ -12,11 +16,19 @@ import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -27,7 +39,13 @@ public class ShopService {
     private final ShopItemRepository shopItemRepository;
     private final PlayerUnlockRepository playerUnlockRepository;
     private final PlayerPreferenceRepository playerPreferenceRepository;
+    private final PendingPurchaseRepository pendingPurchaseRepository;
     private final WalletServiceClient walletServiceClient;
+    private final ShopCatalog shopCatalog;
+    private final PlayerUnlockCache playerUnlockCache;
+    private final EventPublisher eventPublisher;
+    private final EntitlementInvalidationPublisher entitlementInvalidationPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @PostConstruct
     public void initializeShopItems() {
@@ -72,32 +90,30 @@ public class ShopService {
 
             log.info("Default shop items initialized");
         }
+
+        shopCatalog.refresh();
     }
 
-    public List<ShopItemDto> getShopItems(String username) {
-        List<ShopItem> items = shopItemRepository.findByIsActiveTrueOrderByItemTypeAscPriceAsc();
-        Set<String> unlockedItems = playerUnlockRepository.findUnlockedItemIdsByUsername(username)
-                .stream().collect(Collectors.toSet());
-
-        return items.stream()
-                .map(item -> {
-                    // Make default skin always appear as unlocked
-                    boolean isUnlocked = unlockedItems.contains(item.getItemId()) || DEFAULT_SKIN.equals(item.getItemId());
-                    return ShopItemDto.fromEntity(item, isUnlocked);
-                })
-                .toList();
+    /**
+     * Renders the shop items for a player from the {@link ShopCatalog} snapshot and the
+     * player's cached unlocks.
+     */
+    public ShopCatalog.RenderedItems getShopItems(String username) {
+        ShopCatalog.Snapshot catalog = shopCatalog.current();
+        return catalog.render(getUnlockedBits(username, catalog));
     }
 
     public PlayerUnlocksDto getPlayerUnlocks(String username) {
-        List<String> unlockedItems = playerUnlockRepository.findUnlockedItemIdsByUsername(username);
-        // Add default skin to the list of unlocked items if it's not already there
-        if (!unlockedItems.contains(DEFAULT_SKIN)) {
-            unlockedItems.add(DEFAULT_SKIN);
-        }
-        return new PlayerUnlocksDto(username, unlockedItems);
+        ShopCatalog.Snapshot catalog = shopCatalog.current();
+        return new PlayerUnlocksDto(username, catalog.toItemIds(getUnlockedBits(username, catalog)));
     }
 
-    @Transactional
+    /**
+     * Buys an item with a single charge against the wallet. No shop transaction is held open
+     * during the wallet call; only the unlock insert and its {@code item_unlocked} event run in
+     * one, and a failed insert is compensated by refunding the charge. A charge without a definite
+     * outcome is kept as a {@link PendingPurchase} and resolved by {@link PendingPurchaseReconciler}.
+     */
     public PurchaseResponse purchaseItem(PurchaseRequest request) {
         String username = request.username();
         String itemId = request.itemId();
@@ -116,7 +132,7 @@ public class ShopService {
         }
 
         // Check if already unlocked
-        if (playerUnlockRepository.existsByUsernameAndItemId(username, itemId)) {
+        if (hasUnlockedItem(username, itemId)) {
             return new PurchaseResponse(
                     username, itemId, item.getName(), item.getPrice(),
                     walletServiceClient.getPlayerCoins(username), false,
@@ -124,54 +140,218 @@ public class ShopService {
             );
         }
 
-        // Check if player has enough coins
-        Integer playerCoins = walletServiceClient.getPlayerCoins(username);
-        if (playerCoins < item.getPrice()) {
+        // Check the balance and deduct coins in one call, the key makes retries of this purchase safe
+        String chargeKey = UUID.randomUUID().toString();
+        WalletChargeResponse charge = walletServiceClient.charge(username, item.getPrice(), purchaseReason(itemId), chargeKey);
+        if (charge == null) {
+            // The charge may have been applied before the wallet stopped answering, so the key is
+            // kept and the charge re-issued with it until the outcome is known
+            pendingPurchaseRepository.save(new PendingPurchase(chargeKey, username, itemId, item.getPrice()));
+            log.warn("Charge of {} coins from {} for {} has no outcome yet, resolving later (charge key {})",
+                    item.getPrice(), username, itemId, chargeKey);
             return new PurchaseResponse(
                     username, itemId, item.getName(), item.getPrice(),
-                    playerCoins, false,
-                    "Insufficient coins. Need " + item.getPrice() + " coins, but only have " + playerCoins
+                    0, false,
+                    "The wallet has not confirmed the charge yet. If it went through, the item is unlocked shortly"
             );
         }
 
-        // Deduct coins
-        boolean deductSuccess = walletServiceClient.deductCoins(username, item.getPrice());
-        if (!deductSuccess) {
+        if (!Boolean.TRUE.equals(charge.success())) {
+            if (charge.remainingCoins() == null) {
+                // Rejected without a balance check, e.g. an invalid request
+                return new PurchaseResponse(
+                        username, itemId, item.getName(), item.getPrice(),
+                        0, false,
+                        "The wallet rejected the charge"
+                );
+            }
             return new PurchaseResponse(
                     username, itemId, item.getName(), item.getPrice(),
-                    playerCoins, false,
-                    "Failed to deduct coins from wallet"
+                    charge.remainingCoins(), false,
+                    "Insufficient coins. Need " + item.getPrice() + " coins, but only have " + charge.remainingCoins()
             );
         }
 
-        // Create unlock record
-        PlayerUnlock unlock = new PlayerUnlock(username, itemId);
-        playerUnlockRepository.save(unlock);
+        return completePurchase(username, item, item.getPrice(), chargeKey, charge.remainingCoins(), false);
+    }
+
+    /**
+     * Re-issues the charge of a purchase whose outcome was unknown with its original key, so the
+     * wallet either replays the charge that went through or applies it now. A successful charge
+     * unlocks the item like a regular purchase, a rejected one drops the purchase. A charge for an
+     * item that no longer exists is refunded.
+     *
+     * @return false if the wallet still gave no definite answer or the refund failed
+     */
+    public boolean resolvePendingPurchase(PendingPurchase purchase) {
+        String username = purchase.getUsername();
+        String itemId = purchase.getItemId();
+
+        WalletChargeResponse charge = walletServiceClient.charge(username, purchase.getPrice(), purchaseReason(itemId), purchase.getChargeKey());
+        if (charge == null) {
+            return false;
+        }
+
+        if (!Boolean.TRUE.equals(charge.success())) {
+            log.info("Pending purchase of {} by {} was not charged, dropping it (charge key {})", itemId, username, purchase.getChargeKey());
+            transactionTemplate.executeWithoutResult(status -> pendingPurchaseRepository.deleteByChargeKey(purchase.getChargeKey()));
+            return true;
+        }
+
+        Optional<ShopItem> item = shopItemRepository.findByItemId(itemId);
+        if (item.isEmpty()) {
+            log.error("Pending purchase of {} by {} refers to a missing item, refunding {} coins (charge key {})",
+                    itemId, username, purchase.getPrice(), purchase.getChargeKey());
+            return refundPendingPurchase(purchase);
+        }
+
+        completePurchase(username, item.get(), purchase.getPrice(), purchase.getChargeKey(), charge.remainingCoins(), true);
+        return true;
+    }
+
+    /**
+     * Creates the unlock record and its event in one short transaction after the charge went
+     * through. A failed insert is compensated by refunding the charge. When resolving a pending
+     * purchase its record is removed in the same transaction, so only one instance unlocks it.
+     */
+    private PurchaseResponse completePurchase(String username, ShopItem item, Integer price, String chargeKey,
+                                              Integer remainingCoins, boolean pending) {
+        String itemId = item.getItemId();
+
+        try {
+            boolean unlocked = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (pending && pendingPurchaseRepository.deleteByChargeKey(chargeKey) == 0) {
+                    return false;
+                }
+                playerUnlockRepository.saveAndFlush(new PlayerUnlock(username, itemId));
+                eventPublisher.publish(EventTypes.ITEM_UNLOCKED, username, new ItemUnlockedEvent(username, itemId, item.getItemType()));
+                return true;
+            }));
+            if (!unlocked) {
+                log.info("Pending purchase of {} by {} was already resolved (charge key {})", itemId, username, chargeKey);
+                return new PurchaseResponse(username, itemId, item.getName(), price, remainingCoins, true, "Purchase already completed");
+            }
+
+            playerUnlockCache.invalidate(username);
+            entitlementInvalidationPublisher.publishAfterCommit(username);
+        } catch (Exception e) {
+            log.error("Failed to unlock {} for {} after charging, refunding {} coins: {}",
+                    itemId, username, price, e.getMessage());
+
+            boolean refunded = walletServiceClient.refund(username, price, "refund:" + itemId, chargeKey + ":refund");
+            if (!refunded) {
+                log.error("Refund of {} coins to {} for {} failed (charge key {})", price, username, itemId, chargeKey);
+            } else if (pending) {
+                transactionTemplate.executeWithoutResult(status -> pendingPurchaseRepository.deleteByChargeKey(chargeKey));
+            }
 
-        Integer remainingCoins = walletServiceClient.getPlayerCoins(username);
+            boolean alreadyUnlocked = e instanceof DataIntegrityViolationException;
+            if (alreadyUnlocked) {
+                // Unlocked through another instance, the cached bitset was outdated
+                playerUnlockCache.invalidate(username);
+            }
+            return new PurchaseResponse(
+                    username, itemId, item.getName(), price,
+                    refunded ? remainingCoins + price : remainingCoins, false,
+                    alreadyUnlocked ? "Item already unlocked" : "Failed to unlock item"
+            );
+        }
 
         log.info("Player {} successfully purchased {} for {} coins. Remaining coins: {}",
-                username, item.getName(), item.getPrice(), remainingCoins);
+                username, item.getName(), price, remainingCoins);
 
         return new PurchaseResponse(
-                username, itemId, item.getName(), item.getPrice(),
+                username, itemId, item.getName(), price,
                 remainingCoins, true,
                 "Purchase successful! " + item.getName() + " unlocked."
         );
     }
 
+    /**
+     * Credits back the charge of a pending purchase that cannot be completed and removes its
+     * record. If the refund fails the record is kept and the purchase resolved again next time.
+     *
+     * @return Whether the refund went through
+     */
+    private boolean refundPendingPurchase(PendingPurchase purchase) {
+        String chargeKey = purchase.getChargeKey();
+        boolean refunded = walletServiceClient.refund(purchase.getUsername(), purchase.getPrice(),
+                "refund:" + purchase.getItemId(), chargeKey + ":refund");
+        if (!refunded) {
+            log.error("Refund of {} coins to {} for {} failed (charge key {})",
+                    purchase.getPrice(), purchase.getUsername(), purchase.getItemId(), chargeKey);
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> pendingPurchaseRepository.deleteByChargeKey(chargeKey));
+        return true;
+    }
+
+    private static String purchaseReason(String itemId) {
+        return "purchase:" + itemId;
+    }
+
     public boolean hasUnlockedItem(String username, String itemId) {
         // default skin is always considered unlocked for all players
         if (DEFAULT_SKIN.equals(itemId)) {
             return true;
         }
-        return playerUnlockRepository.existsByUsernameAndItemId(username, itemId);
+
+        ShopCatalog.Snapshot catalog = shopCatalog.current();
+        OptionalInt ordinal = catalog.ordinal(itemId);
+        if (ordinal.isEmpty()) {
+            // Not an active catalog item, so not part of the bitset
+            return playerUnlockRepository.existsByUsernameAndItemId(username, itemId);
+        }
+
+        return ShopCatalog.Snapshot.isSet(getUnlockedBits(username, catalog), ordinal.getAsInt());
+    }
+
+    /**
+     * Unlocks of a player as a bitset over the catalog ordinals, served from the
+     * {@link PlayerUnlockCache} when possible. The default skin is always unlocked.
+     */
+    private long[] getUnlockedBits(String username, ShopCatalog.Snapshot catalog) {
+        Optional<long[]> cachedBits = playerUnlockCache.get(username, catalog.version());
+        if (cachedBits.isPresent()) {
+            return cachedBits.get();
+        }
+
+        long version = playerUnlockCache.version(username);
+        List<String> unlockedItems = playerUnlockRepository.findUnlockedItemIdsByUsername(username);
+        unlockedItems.add(DEFAULT_SKIN);
+
+        long[] bits = catalog.toBits(unlockedItems);
+        playerUnlockCache.putIfUnchanged(username, catalog.version(), bits, version);
+        return bits;
     }
 
     public boolean hasUnlockedMap(String username, String mapId) {
         return hasUnlockedItem(username, mapId);
     }
 
+    /**
+     * Selected skin and unlocked maps of several players, read with one query per table.
+     * Players without a stored preference get the default skin.
+     */
+    public List<PlayerEntitlementsDto> getPlayerEntitlements(List<String> usernames) {
+        Set<String> distinctUsernames = new LinkedHashSet<>(usernames);
+
+        Map<String, String> selectedSkins = new HashMap<>();
+        playerPreferenceRepository.findByUsernameIn(distinctUsernames)
+                .forEach(preference -> selectedSkins.put(preference.getUsername(), preference.getSelectedSkin()));
+
+        Map<String, List<String>> unlockedMaps = new HashMap<>();
+        playerUnlockRepository.findByUsernameInAndItemType(distinctUsernames, ItemType.MAP_UNLOCK)
+                .forEach(unlock -> unlockedMaps.computeIfAbsent(unlock.getUsername(), key -> new ArrayList<>()).add(unlock.getItemId()));
+
+        return distinctUsernames.stream()
+                .map(username -> new PlayerEntitlementsDto(
+                        username,
+                        selectedSkins.getOrDefault(username, DEFAULT_SKIN),
+                        unlockedMaps.getOrDefault(username, List.of())))
+                .toList();
+    }
+
     public PlayerPreferenceDto getPlayerPreference(String username) {
         PlayerPreference preference = playerPreferenceRepository.findByUsername(username)
                 .orElseGet(() -> {
@@ -198,6 +378,8 @@ public class ShopService {
 
         preference.setSelectedSkin(selectedSkin);
         preference = playerPreferenceRepository.save(preference);
+        eventPublisher.publish(EventTypes.PREFERENCE_CHANGED, username, new PreferenceChangedEvent(username, selectedSkin));
+        entitlementInvalidationPublisher.publishAfterCommit(username);
 
         log.info("Updated player preference for {}: selectedSkin={}", username, selectedSkin);
 
@@ -1,74 +1,107 @@
 package fhv.omni.shop.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import fhv.omni.core.microservice.http.IdempotentRetry;
+import fhv.omni.core.microservice.http.ServiceClientFactory;
+import fhv.omni.shop.dto.WalletChargeRequest;
+import fhv.omni.shop.dto.WalletChargeResponse;
+import fhv.omni.shop.dto.WalletCoinsResponse;
+import fhv.omni.shop.dto.WalletRefundRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 
 @Service
 @Slf4j
 public class WalletServiceClient {
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
-    private final String walletServiceUrl;
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(200);
 
-    public WalletServiceClient(@Value("${wallet.service.url:http://localhost:8083}") String walletServiceUrl) {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
-        this.walletServiceUrl = walletServiceUrl;
+    private final RestClient restClient;
+    private final int maxAttempts;
+
+    public WalletServiceClient(ServiceClientFactory serviceClientFactory,
+                               @Value("${wallet.service.url:http://localhost:8083}") String walletServiceUrl,
+                               @Value("${wallet.service.max-attempts:3}") int maxAttempts) {
+        this.restClient = serviceClientFactory.create(walletServiceUrl);
+        this.maxAttempts = maxAttempts;
     }
 
     public Integer getPlayerCoins(String username) {
         try {
-            String url = walletServiceUrl + "/api/wallet/" + username + "/coins";
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            WalletCoinsResponse response = restClient.get()
+                    .uri("/api/wallet/{username}/coins", username)
+                    .retrieve()
+                    .body(WalletCoinsResponse.class);
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                Map<String, Object> responseBody = objectMapper.readValue(response.getBody(), Map.class);
-                return (Integer) responseBody.get("coins");
-            } else {
-                log.warn("Failed to get coins for {}: HTTP {}", username, response.getStatusCode());
-                return 0;
-            }
+            return response != null && response.coins() != null ? response.coins() : 0;
+        } catch (RestClientResponseException e) {
+            log.warn("Failed to get coins for {}: HTTP {}", username, e.getStatusCode());
+            return 0;
         } catch (Exception e) {
             log.error("Error getting coins for {}: {}", username, e.getMessage());
             return 0;
         }
     }
 
-    public boolean deductCoins(String username, Integer amount) {
+    /**
+     * Checks the balance and deducts coins in a single call. Failed attempts are retried with
+     * the same idempotency key, so the wallet never charges twice for one call.
+     *
+     * @return The outcome of the charge, or null if it is unknown because the wallet timed out,
+     * could not be reached or failed with a server error. A rejected request (4xx) is a
+     * definite failure without a balance.
+     */
+    public WalletChargeResponse charge(String username, Integer amount, String reason, String idempotencyKey) {
         try {
-            String url = walletServiceUrl + "/api/wallet/" + username + "/deduct-coins";
-
-            Map<String, Integer> requestBody = new HashMap<>();
-            requestBody.put("amount", amount);
+            WalletChargeResponse response = IdempotentRetry.call(() -> restClient.post()
+                    .uri("/api/wallet/{username}/charge", username)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(IdempotentRetry.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .body(new WalletChargeRequest(amount, reason))
+                    .retrieve()
+                    .body(WalletChargeResponse.class), maxAttempts, RETRY_BACKOFF);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<Map<String, Integer>> requestEntity = new HttpEntity<>(requestBody, headers);
+            if (response != null && Boolean.TRUE.equals(response.success())) {
+                log.info("Successfully charged {} coins from {}", amount, username);
+            }
+            return response;
+        } catch (RestClientResponseException e) {
+            log.error("Failed to charge coins from {}: HTTP {}", username, e.getStatusCode());
+            if (e.getStatusCode().is4xxClientError()) {
+                // The wallet refused the request, nothing was charged
+                return new WalletChargeResponse(username, false, amount, null, "Charge rejected: HTTP " + e.getStatusCode().value());
+            }
+            return null;
+        } catch (Exception e) {
+            log.error("Error charging coins from {}: {}", username, e.getMessage());
+            return null;
+        }
+    }
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    requestEntity,
-                    String.class
-            );
+    /**
+     * Credits back a charge. Retried like {@link #charge}, so it is applied at most once per key.
+     */
+    public boolean refund(String username, Integer amount, String reason, String idempotencyKey) {
+        try {
+            IdempotentRetry.call(() -> restClient.post()
+                    .uri("/api/wallet/{username}/refund", username)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(IdempotentRetry.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .body(new WalletRefundRequest(amount, reason))
+                    .retrieve()
+                    .toBodilessEntity(), maxAttempts, RETRY_BACKOFF);
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Successfully deducted {} coins for {}", amount, username);
-                return true;
-            } else {
-                log.error("Failed to deduct coins for {}: HTTP {}", username, response.getStatusCode());
-                return false;
-            }
+            log.info("Successfully refunded {} coins to {}", amount, username);
+            return true;
+        } catch (RestClientResponseException e) {
+            log.error("Failed to refund coins to {}: HTTP {}", username, e.getStatusCode());
+            return false;
         } catch (Exception e) {
-            log.error("Error deducting coins for {}: {}", username, e.getMessage());
+            log.error("Error refunding coins to {}: {}", username, e.getMessage());
             return false;
         }
     }
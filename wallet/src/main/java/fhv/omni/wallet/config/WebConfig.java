@@ -0,0 +1,15 @@
+package fhv.omni.wallet.config;
+
+import fhv.omni.core.microservice.web.TrustedUserInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TrustedUserInterceptor());
+    }
+}
@@ -2,14 +2,24 @@ package fhv.omni.wallet.controller;
 
 import fhv.omni.wallet.dto.AddCoinsRequest;
 import fhv.omni.wallet.dto.AddCoinsResponse;
+import fhv.omni.wallet.dto.BatchAddCoinsRequest;
+import fhv.omni.wallet.dto.BatchAddCoinsResponse;
+import fhv.omni.wallet.dto.ChargeRequest;
+import fhv.omni.wallet.dto.ChargeResponse;
+import fhv.omni.wallet.dto.RefundRequest;
 import fhv.omni.wallet.dto.WalletDto;
+import fhv.omni.wallet.dto.WalletTransactionDto;
 import fhv.omni.wallet.service.WalletService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -24,6 +34,9 @@ public class WalletController {
     private static final String USERNAME_KEY = "username";
     private static final String REMAINING_COINS_KEY = "remainingCoins";
     private static final String COINS_KEY = "coins";
+    private static final int MAX_TRANSACTIONS = 200;
+    // Optional on all mutations; retries with the same key return the original result
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private final WalletService walletService;
 
@@ -35,7 +48,8 @@ public class WalletController {
     }
 
     @PostMapping("/{username}/add-coins")
-    public ResponseEntity<AddCoinsResponse> addCoins(@PathVariable String username, @Valid @RequestBody AddCoinsRequest request) {
+    public ResponseEntity<AddCoinsResponse> addCoins(@PathVariable String username, @Valid @RequestBody AddCoinsRequest request,
+                                                     @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         if (request.amount() <= 0) {
             return ResponseEntity.badRequest().body(new AddCoinsResponse(username, 0, 0, "Amount must be positive"));
         }
@@ -43,7 +57,7 @@ public class WalletController {
         log.info("Adding {} coins to user: {}", request.amount(), username);
 
         try {
-            WalletDto updatedWallet = walletService.addCoins(username, request.amount());
+            WalletDto updatedWallet = walletService.addCoins(username, request.amount(), null, idempotencyKey);
 
             AddCoinsResponse response = new AddCoinsResponse(
                     updatedWallet.username(),
@@ -59,8 +73,26 @@ public class WalletController {
         }
     }
 
+    @PostMapping("/add-coins/batch")
+    public ResponseEntity<BatchAddCoinsResponse> addCoinsBatch(@Valid @RequestBody BatchAddCoinsRequest request,
+                                                               @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("Adding coins in batch for {} entries", request.entries().size());
+
+        try {
+            List<WalletDto> balances = walletService.addCoinsBatch(request.entries(), idempotencyKey);
+            return ResponseEntity.ok(new BatchAddCoinsResponse(balances, "Coins added successfully"));
+        } catch (IllegalArgumentException e) {
+            log.warn("Batch credit rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new BatchAddCoinsResponse(List.of(), e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error adding coins in batch: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(new BatchAddCoinsResponse(List.of(), "Failed to add coins: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/{username}/deduct-coins")
-    public ResponseEntity<Map<String, Object>> deductCoins(@PathVariable String username, @Valid @RequestBody Map<String, Integer> request) {
+    public ResponseEntity<Map<String, Object>> deductCoins(@PathVariable String username, @Valid @RequestBody Map<String, Integer> request,
+                                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Integer amount = request.get("amount");
 
         if (amount <= 0) {
@@ -73,7 +105,7 @@ public class WalletController {
         log.info("Deducting {} coins from user: {}", amount, username);
 
         try {
-            WalletDto updatedWallet = walletService.deductCoins(username, amount);
+            WalletDto updatedWallet = walletService.deductCoins(username, amount, idempotencyKey);
 
             return ResponseEntity.ok(Map.of(
                     SUCCESS_KEY, true,
@@ -96,13 +128,65 @@ public class WalletController {
         }
     }
 
+    /**
+     * Checks the balance and deducts the amount in one call. A declined charge is answered with
+     * {@code success == false} and the current balance, so callers need no extra balance lookup.
+     */
+    @PostMapping("/{username}/charge")
+    public ResponseEntity<ChargeResponse> charge(@PathVariable String username, @Valid @RequestBody ChargeRequest request,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("Charging {} coins from user: {}", request.amount(), username);
+
+        try {
+            return ResponseEntity.ok(walletService.charge(username, request.amount(), request.reason(), idempotencyKey));
+        } catch (Exception e) {
+            log.error("Error charging coins from user {}: {}", username, e.getMessage());
+            return ResponseEntity.internalServerError().body(
+                    new ChargeResponse(username, false, request.amount(), 0, "Failed to charge coins: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Credits back a previous charge, e.g. when the purchase it paid for could not be completed.
+     */
+    @PostMapping("/{username}/refund")
+    public ResponseEntity<AddCoinsResponse> refund(@PathVariable String username, @Valid @RequestBody RefundRequest request,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("Refunding {} coins to user: {} ({})", request.amount(), username, request.reason());
+
+        try {
+            WalletDto updatedWallet = walletService.addCoins(username, request.amount(), request.reason(), idempotencyKey);
+            return ResponseEntity.ok(new AddCoinsResponse(username, request.amount(), updatedWallet.coins(), "Coins refunded successfully"));
+        } catch (Exception e) {
+            log.error("Error refunding coins to user {}: {}", username, e.getMessage());
+            return ResponseEntity.internalServerError().body(new AddCoinsResponse(username, 0, 0, "Failed to refund coins: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{username}/coins")
-    public ResponseEntity<Map<String, Object>> getCoins(@PathVariable String username) {
+    public ResponseEntity<Map<String, Object>> getCoins(@PathVariable String username, WebRequest webRequest) {
         log.info("Getting coins for user: {}", username);
         Integer coins = walletService.getCoins(username);
-        return ResponseEntity.ok(Map.of(
-                USERNAME_KEY, username,
-                COINS_KEY, coins)
-        );
+
+        // The balance is the only variable part of the response, pollers revalidate with If-None-Match
+        String eTag = "\"" + coins + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(Map.of(
+                        USERNAME_KEY, username,
+                        COINS_KEY, coins)
+                );
+    }
+
+    @GetMapping("/{username}/transactions")
+    public ResponseEntity<List<WalletTransactionDto>> getTransactions(@PathVariable String username,
+                                                                      @RequestParam(defaultValue = "50") int limit) {
+        log.info("Getting transactions for user: {}", username);
+        return ResponseEntity.ok(walletService.getTransactions(username, Math.clamp(limit, 1, MAX_TRANSACTIONS)));
     }
 }
@@ -0,0 +1,12 @@
+package fhv.omni.wallet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchAddCoinsRequest(
+        @NotEmpty @Size(max = 500) List<@Valid CoinCreditEntry> entries
+) {
+}
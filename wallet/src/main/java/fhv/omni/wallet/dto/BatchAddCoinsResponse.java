@@ -0,0 +1,11 @@
+package fhv.omni.wallet.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BatchAddCoinsResponse(
+        @NotNull List<WalletDto> balances,
+        String message
+) {
+}
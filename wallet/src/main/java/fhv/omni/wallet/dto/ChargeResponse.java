@@ -0,0 +1,12 @@
+package fhv.omni.wallet.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record ChargeResponse(
+        @NotNull String username,
+        @NotNull Boolean success,
+        @NotNull Integer amount,
+        @NotNull Integer remainingCoins,
+        String message
+) {
+}
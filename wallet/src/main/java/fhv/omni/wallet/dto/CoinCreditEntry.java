@@ -0,0 +1,12 @@
+package fhv.omni.wallet.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record CoinCreditEntry(
+        @NotBlank String username,
+        @NotNull @Positive Integer amount,
+        String reason
+) {
+}
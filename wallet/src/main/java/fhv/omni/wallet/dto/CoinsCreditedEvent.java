@@ -0,0 +1,13 @@
+package fhv.omni.wallet.dto;
+
+import java.util.List;
+
+/**
+ * @param requestKey Idempotency key of the credit, {@code match:<matchId>} for match rewards
+ * @param balances   New balance of every credited wallet
+ */
+public record CoinsCreditedEvent(
+        String requestKey,
+        List<WalletDto> balances
+) {
+}
@@ -0,0 +1,12 @@
+package fhv.omni.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record MatchCompletedEvent(
+        String matchId,
+        List<CoinCreditEntry> awards
+) {
+}
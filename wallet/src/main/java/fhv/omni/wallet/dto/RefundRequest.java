@@ -0,0 +1,10 @@
+package fhv.omni.wallet.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record RefundRequest(
+        @NotNull @Positive Integer amount,
+        String reason
+) {
+}
@@ -0,0 +1,13 @@
+package fhv.omni.wallet.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+public record WalletTransactionDto(
+        @NotNull Long id,
+        @NotNull Integer amount,
+        String reason,
+        @NotNull LocalDateTime createdAt
+) {
+}
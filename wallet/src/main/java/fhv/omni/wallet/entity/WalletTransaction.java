@@ -0,0 +1,57 @@
+package fhv.omni.wallet.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the append-only wallet ledger. Credits are positive, debits negative.
+ * Entries are folded into {@link Wallet#getCoins()} by the snapshotter, after which they
+ * are marked as applied; they are never updated otherwise or deleted.
+ */
+@Entity
+@Table(name = "wallet_transactions", indexes = {
+        @Index(name = "idx_wallet_transactions_username_applied", columnList = "username, applied")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletTransaction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_transactions_seq")
+    @SequenceGenerator(name = "wallet_transactions_seq", sequenceName = "wallet_transactions_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(nullable = false)
+    private String username;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer amount;
+
+    private String reason;
+
+    @Column(nullable = false)
+    private boolean applied = false;
+
+    // Set by callers that may retry, a repeated key returns the stored result
+    @Column(name = "idempotency_key", unique = true)
+    private String idempotencyKey;
+
+    @Column(name = "balance_after")
+    private Integer balanceAfter;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public WalletTransaction(String username, Integer amount, String reason) {
+        this.username = username;
+        this.amount = amount;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,10 @@
+package fhv.omni.wallet.repository;
+
+/**
+ * Projection for native queries returning the balance of a wallet.
+ */
+public interface WalletBalance {
+    String getUsername();
+
+    Integer getCoins();
+}
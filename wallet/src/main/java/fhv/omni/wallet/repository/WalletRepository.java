@@ -1,12 +1,15 @@
 package fhv.omni.wallet.repository;
 
 import fhv.omni.wallet.entity.Wallet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,9 +17,43 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
     Optional<Wallet> findByUsername(String username);
 
-    @Modifying
-    @Query("UPDATE Wallet w SET w.coins = w.coins + :amount WHERE w.username = :username")
-    int addCoins(@Param("username") String username, @Param("amount") Integer amount);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.username = :username")
+    Optional<Wallet> findByUsernameForUpdate(@Param("username") String username);
 
     boolean existsByUsername(String username);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO wallets (username, coins, created_at, updated_at)
+            SELECT u.username, 0, now(), now()
+            FROM unnest(CAST(:usernames AS text[])) AS u(username)
+            ON CONFLICT (username) DO NOTHING
+            """, nativeQuery = true)
+    int createMissingWallets(@Param("usernames") String[] usernames);
+
+    /**
+     * Current balance of a wallet: the snapshot plus the ledger entries not yet applied to it,
+     * read in a single statement.
+     */
+    @Query(value = """
+            SELECT CAST(COALESCE((SELECT w.coins FROM wallets w WHERE w.username = :username), 0)
+                      + COALESCE((SELECT SUM(t.amount) FROM wallet_transactions t
+                                  WHERE t.username = :username AND NOT t.applied), 0) AS int)
+            """, nativeQuery = true)
+    Integer findBalance(@Param("username") String username);
+
+    @Query(value = """
+            SELECT u.username AS username,
+                   CAST(COALESCE(w.coins, 0) + COALESCE(t.pending, 0) AS int) AS coins
+            FROM unnest(CAST(:usernames AS text[])) AS u(username)
+            LEFT JOIN wallets w ON w.username = u.username
+            LEFT JOIN (
+                SELECT username, SUM(amount) AS pending
+                FROM wallet_transactions
+                WHERE NOT applied AND username = ANY(CAST(:usernames AS text[]))
+                GROUP BY username
+            ) t ON t.username = u.username
+            """, nativeQuery = true)
+    List<WalletBalance> findBalances(@Param("usernames") String[] usernames);
 }
@@ -0,0 +1,80 @@
+package fhv.omni.wallet.repository;
+
+import fhv.omni.wallet.entity.WalletTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WalletTransactionRepository extends JpaRepository<WalletTransaction, Long> {
+
+    List<WalletTransaction> findByUsernameOrderByIdDesc(String username, Pageable pageable);
+
+    Optional<WalletTransaction> findByIdempotencyKey(String idempotencyKey);
+
+    List<WalletTransaction> findByIdempotencyKeyStartingWithOrderById(String idempotencyKeyPrefix);
+
+    /**
+     * Appends a ledger entry unless one with the same idempotency key exists. A concurrent insert
+     * of the same key blocks until the other transaction finishes instead of failing this one.
+     * The resulting balance is read afterwards and stored with {@link #recordBalanceAfter}.
+     *
+     * @return 1 if the entry was appended, 0 if the key was already used
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO wallet_transactions (id, username, amount, reason, applied, idempotency_key, created_at)
+            VALUES (nextval('wallet_transactions_seq'), :username, :amount, CAST(:reason AS varchar), false,
+                    CAST(:idempotencyKey AS varchar), now())
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """, nativeQuery = true)
+    int appendIfAbsent(@Param("username") String username,
+                       @Param("amount") Integer amount,
+                       @Param("reason") String reason,
+                       @Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * Stores the balance a keyed entry resulted in, so a repeated key returns it.
+     */
+    @Modifying
+    @Query(value = "UPDATE wallet_transactions SET balance_after = :balanceAfter WHERE idempotency_key = :idempotencyKey",
+            nativeQuery = true)
+    int recordBalanceAfter(@Param("idempotencyKey") String idempotencyKey,
+                           @Param("balanceAfter") Integer balanceAfter);
+
+    /**
+     * Folds up to {@code limit} unapplied ledger entries into the wallet snapshots and marks them
+     * as applied, in one statement so readers never see an entry counted twice or not at all.
+     * Entries locked by a concurrent snapshot run are skipped.
+     *
+     * @return The number of wallets updated
+     */
+    @Modifying
+    @Query(value = """
+            WITH applied AS (
+                UPDATE wallet_transactions
+                SET applied = true
+                WHERE id IN (
+                    SELECT id FROM wallet_transactions
+                    WHERE NOT applied
+                    ORDER BY id
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING username, amount
+            )
+            INSERT INTO wallets (username, coins, created_at, updated_at)
+            SELECT username, CAST(SUM(amount) AS int), now(), now()
+            FROM applied
+            GROUP BY username
+            ON CONFLICT (username) DO UPDATE
+            SET coins = wallets.coins + EXCLUDED.coins, updated_at = now()
+            """, nativeQuery = true)
+    int applyPendingTransactions(@Param("limit") int limit);
+}
@@ -0,0 +1,60 @@
+package fhv.omni.wallet.service;
+
+import fhv.omni.core.microservice.cache.VersionedLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size-bounded LRU of wallet balances in front of the ledger. Every local write invalidates the
+ * balance once it has committed; writes on other instances are picked up once the entry expires.
+ */
+@Component
+public class BalanceCache {
+    private final VersionedLruCache<String, Integer> cache;
+
+    public BalanceCache(@Value("${wallet.balance-cache.ttl-seconds:5}") long ttlSeconds,
+                        @Value("${wallet.balance-cache.max-size:10000}") int maxSize) {
+        this.cache = new VersionedLruCache<>(TimeUnit.SECONDS.toMillis(ttlSeconds), maxSize);
+    }
+
+    public Optional<Integer> get(String username) {
+        return cache.get(username);
+    }
+
+    /**
+     * Version to pass to {@link #putIfUnchanged}, read before loading the balance.
+     */
+    public long version(String username) {
+        return cache.version(username);
+    }
+
+    public void putIfUnchanged(String username, Integer coins, long version) {
+        cache.putIfUnchanged(username, coins, version);
+    }
+
+    /**
+     * Invalidates the balance of a user once the surrounding transaction has committed.
+     */
+    public void invalidateAfterCommit(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(username);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(username);
+            }
+        });
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+}
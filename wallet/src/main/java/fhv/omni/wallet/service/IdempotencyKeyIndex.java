@@ -0,0 +1,57 @@
+package fhv.omni.wallet.service;
+
+import fhv.omni.wallet.dto.WalletDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size-bounded LRU of recently used idempotency keys and the results they produced, so most
+ * retries are answered without touching the database. Keys that fell out of the index are
+ * still found through the unique idempotency_key column of the ledger.
+ */
+@Component
+public class IdempotencyKeyIndex {
+    private final Map<String, List<WalletDto>> results;
+
+    public IdempotencyKeyIndex(@Value("${wallet.idempotency.index-size:10000}") int maxSize) {
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<WalletDto>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized Optional<List<WalletDto>> get(String key) {
+        return Optional.ofNullable(results.get(key));
+    }
+
+    public synchronized void put(String key, List<WalletDto> result) {
+        results.put(key, result);
+    }
+
+    /**
+     * Records the result once the surrounding transaction has committed, so a rolled back
+     * mutation is never replayed as successful.
+     */
+    public void putAfterCommit(String key, List<WalletDto> result) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(key, result);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(key, result);
+            }
+        });
+    }
+}
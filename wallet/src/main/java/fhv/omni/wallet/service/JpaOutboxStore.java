@@ -0,0 +1,41 @@
+package fhv.omni.wallet.service;
+
+import fhv.omni.core.microservice.events.DomainEvent;
+import fhv.omni.core.microservice.events.OutboxStore;
+import fhv.omni.wallet.entity.OutboxEvent;
+import fhv.omni.wallet.repository.OutboxEventRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox in the wallet database, appends join the transaction of the wallet change.
+ */
+@Component
+@RequiredArgsConstructor
+public class JpaOutboxStore implements OutboxStore {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Override
+    public void append(DomainEvent event) {
+        outboxEventRepository.save(new OutboxEvent(event));
+    }
+
+    @Override
+    public List<DomainEvent> findUnpublished(int limit) {
+        return outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, limit)).stream()
+                .map(OutboxEvent::toDomainEvent)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void markPublished(Collection<String> eventIds) {
+        outboxEventRepository.deleteByEventIds(eventIds);
+    }
+}
@@ -0,0 +1,59 @@
+package fhv.omni.wallet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fhv.omni.core.microservice.events.DomainEvent;
+import fhv.omni.core.microservice.events.EventHandler;
+import fhv.omni.core.microservice.events.EventTypes;
+import fhv.omni.wallet.dto.MatchCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Credits the rewards of finished matches. The match id is used as idempotency key, so
+ * redelivered events do not credit twice.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MatchCompletedHandler implements EventHandler {
+
+    private final WalletService walletService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String eventType() {
+        return EventTypes.MATCH_COMPLETED;
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            MatchCompletedEvent match;
+            try {
+                match = objectMapper.readValue(event.payload(), MatchCompletedEvent.class);
+            } catch (JsonProcessingException e) {
+                // Would fail on every redelivery as well
+                log.error("Skipping malformed {} event {}: {}", event.type(), event.id(), e.getMessage());
+                continue;
+            }
+
+            if (match.awards() == null || match.awards().isEmpty()) {
+                continue;
+            }
+
+            try {
+                walletService.addCoinsBatch(match.awards(), matchCreditKey(match.matchId()));
+            } catch (IllegalArgumentException e) {
+                log.error("Skipping rewards of match {}: {}", match.matchId(), e.getMessage());
+            }
+        }
+    }
+
+    static String matchCreditKey(String matchId) {
+        return "match:" + matchId;
+    }
+}
@@ -1,32 +1,56 @@
 package fhv.omni.wallet.service;
 
+import fhv.omni.core.microservice.events.EventPublisher;
+import fhv.omni.core.microservice.events.EventTypes;
+import fhv.omni.wallet.dto.ChargeResponse;
+import fhv.omni.wallet.dto.CoinsCreditedEvent;
+import fhv.omni.wallet.dto.CoinCreditEntry;
 import fhv.omni.wallet.dto.WalletDto;
+import fhv.omni.wallet.dto.WalletTransactionDto;
 import fhv.omni.wallet.entity.Wallet;
+import fhv.omni.wallet.entity.WalletTransaction;
 import fhv.omni.wallet.repository.WalletRepository;
+import fhv.omni.wallet.repository.WalletTransactionRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Wallet balances are kept in an append-only ledger ({@link WalletTransaction}). Credits are plain
+ * appends, debits lock the wallet row to check the balance before appending. The balance stored on
+ * {@link Wallet} is a snapshot maintained by {@link WalletSnapshotter}; reads add the unapplied tail.
+ * Credits publish a {@code coins_credited} event through the outbox in the same transaction.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WalletService {
 
     private final WalletRepository walletRepository;
+    private final WalletTransactionRepository transactionRepository;
+    private final IdempotencyKeyIndex idempotencyKeyIndex;
+    private final BalanceCache balanceCache;
+    private final EventPublisher eventPublisher;
 
     public WalletDto getWallet(String username) {
-        Optional<Wallet> wallet = walletRepository.findByUsername(username);
+        Optional<Integer> cachedCoins = balanceCache.get(username);
+        if (cachedCoins.isPresent()) {
+            return new WalletDto(username, cachedCoins.get());
+        }
 
-        if (wallet.isPresent()) {
-            return new WalletDto(wallet.get().getUsername(), wallet.get().getCoins());
-        } else {
-            // Create wallet if it doesn't exist
-            Wallet newWallet = createWallet(username);
-            return new WalletDto(newWallet.getUsername(), newWallet.getCoins());
+        if (!walletRepository.existsByUsername(username)) {
+            createWallet(username);
         }
+
+        return new WalletDto(username, getCoins(username));
     }
 
     @Transactional
@@ -41,48 +65,250 @@ public class WalletService {
         return savedWallet;
     }
 
+    /**
+     * Credits a wallet. A repeated idempotency key returns the result of the first call
+     * without crediting again.
+     */
     @Transactional
-    public WalletDto addCoins(String username, Integer amount) {
+    public WalletDto addCoins(String username, Integer amount, String reason, String idempotencyKey) {
         if (amount < 0) {
             throw new IllegalArgumentException("Cannot add negative coins");
         }
 
-        Wallet wallet = walletRepository.findByUsername(username)
-                .orElseGet(() -> createWallet(username));
+        Optional<WalletDto> previousResult = findPreviousResult(idempotencyKey);
+        if (previousResult.isPresent()) {
+            log.info("Replaying add-coins for {} with idempotency key {}", username, idempotencyKey);
+            return previousResult.get();
+        }
+
+        if (transactionRepository.appendIfAbsent(username, amount, reason, idempotencyKey) == 0) {
+            return findPreviousResult(idempotencyKey).orElseThrow();
+        }
+        int newTotal = readBalanceAfter(username, idempotencyKey);
 
-        wallet.setCoins(wallet.getCoins() + amount);
+        log.info("Added {} coins to {}'s wallet. New total: {}", amount, username, newTotal);
 
-        Wallet savedWallet = walletRepository.save(wallet);
+        WalletDto result = new WalletDto(username, newTotal);
+        eventPublisher.publish(EventTypes.COINS_CREDITED, username, new CoinsCreditedEvent(idempotencyKey, List.of(result)));
+        balanceCache.invalidateAfterCommit(username);
+        return rememberResult(idempotencyKey, result);
+    }
+
+    /**
+     * Debits a wallet, failing with an {@link IllegalArgumentException} if it does not hold
+     * enough coins. See {@link #charge}.
+     */
+    @Transactional
+    public WalletDto deductCoins(String username, Integer amount, String idempotencyKey) {
+        ChargeResponse charge = charge(username, amount, null, idempotencyKey);
 
-        log.info("Added {} coins to {}'s wallet. New total: {}", amount, username, savedWallet.getCoins());
+        if (!charge.success()) {
+            throw new IllegalArgumentException("Insufficient coins. Has " + charge.remainingCoins() + ", needs " + amount);
+        }
 
-        return new WalletDto(savedWallet.getUsername(), savedWallet.getCoins());
+        return new WalletDto(username, charge.remainingCoins());
     }
 
+    /**
+     * Checks the balance and debits the wallet in one step. Insufficient coins are not an error,
+     * the response then reports the unchanged balance. A repeated idempotency key returns the
+     * result of the first successful call without debiting again.
+     */
     @Transactional
-    public WalletDto deductCoins(String username, Integer amount) {
+    public ChargeResponse charge(String username, Integer amount, String reason, String idempotencyKey) {
         if (amount < 0) {
             throw new IllegalArgumentException("Cannot deduct negative coins");
         }
 
-        Wallet wallet = walletRepository.findByUsername(username)
-                .orElseGet(() -> createWallet(username));
+        Optional<WalletDto> previousResult = findPreviousResult(idempotencyKey);
+        if (previousResult.isPresent()) {
+            log.info("Replaying charge for {} with idempotency key {}", username, idempotencyKey);
+            return charged(previousResult.get(), amount);
+        }
+
+        // Debits of the same wallet are serialized on its row so the balance check cannot race
+        walletRepository.createMissingWallets(new String[]{username});
+        walletRepository.findByUsernameForUpdate(username).orElseThrow();
 
-        if (wallet.getCoins() < amount) {
-            throw new IllegalArgumentException("Insufficient coins. Has " + wallet.getCoins() + ", needs " + amount);
+        // A concurrent call with the same key may have committed while this one waited for the lock
+        previousResult = findPreviousResult(idempotencyKey);
+        if (previousResult.isPresent()) {
+            return charged(previousResult.get(), amount);
         }
 
-        wallet.setCoins(wallet.getCoins() - amount);
-        Wallet savedWallet = walletRepository.save(wallet);
+        Integer coins = walletRepository.findBalance(username);
+        if (coins < amount) {
+            log.info("Could not charge {} coins from {}'s wallet, only has {}", amount, username, coins);
+            return new ChargeResponse(username, false, amount, coins,
+                    "Insufficient coins. Need " + amount + " coins, but only have " + coins);
+        }
+
+        if (transactionRepository.appendIfAbsent(username, -amount, reason, idempotencyKey) == 0) {
+            return charged(findPreviousResult(idempotencyKey).orElseThrow(), amount);
+        }
+        int newTotal = readBalanceAfter(username, idempotencyKey);
 
-        log.info("Deducted {} coins from {}'s wallet. New total: {}", amount, username, savedWallet.getCoins());
+        log.info("Deducted {} coins from {}'s wallet. New total: {}", amount, username, newTotal);
 
-        return new WalletDto(savedWallet.getUsername(), savedWallet.getCoins());
+        balanceCache.invalidateAfterCommit(username);
+        return charged(rememberResult(idempotencyKey, new WalletDto(username, newTotal)), amount);
+    }
+
+    /**
+     * Credits several wallets in one transaction. All entries are appended to the ledger with
+     * batched inserts; entry {@code i} is stored under the key {@code idempotencyKey#i}, so a
+     * repeated batch returns the balances of the first call.
+     *
+     * @return The new balance of every credited wallet
+     */
+    @Transactional
+    public List<WalletDto> addCoinsBatch(List<CoinCreditEntry> entries, String idempotencyKey) {
+        Optional<List<WalletDto>> previousResult = findPreviousBatchResult(idempotencyKey);
+        if (previousResult.isPresent()) {
+            log.info("Replaying batch credit with idempotency key {}", idempotencyKey);
+            return previousResult.get();
+        }
+
+        List<WalletTransaction> transactions = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            CoinCreditEntry entry = entries.get(i);
+            if (entry.amount() < 0) {
+                throw new IllegalArgumentException("Cannot add negative coins");
+            }
+
+            WalletTransaction transaction = new WalletTransaction(entry.username(), entry.amount(), entry.reason());
+            if (idempotencyKey != null) {
+                transaction.setIdempotencyKey(batchEntryKey(idempotencyKey, i));
+            }
+            transactions.add(transaction);
+        }
+
+        transactionRepository.saveAllAndFlush(transactions);
+
+        // Read after appending so credits committed meanwhile are counted, then walk back from the
+        // final balance to the balance after each entry (written when the transaction commits)
+        Map<String, Integer> balances = new LinkedHashMap<>();
+        entries.forEach(entry -> balances.put(entry.username(), 0));
+        walletRepository.findBalances(balances.keySet().toArray(String[]::new))
+                .forEach(balance -> balances.put(balance.getUsername(), balance.getCoins()));
+
+        Map<String, Integer> runningBalances = new LinkedHashMap<>(balances);
+        for (WalletTransaction transaction : transactions.reversed()) {
+            int balanceAfter = runningBalances.get(transaction.getUsername());
+            transaction.setBalanceAfter(balanceAfter);
+            runningBalances.put(transaction.getUsername(), balanceAfter - transaction.getAmount());
+        }
+        balances.keySet().forEach(balanceCache::invalidateAfterCommit);
+        List<WalletDto> result = balances.entrySet().stream()
+                .map(balance -> new WalletDto(balance.getKey(), balance.getValue()))
+                .toList();
+
+        eventPublisher.publish(EventTypes.COINS_CREDITED, idempotencyKey, new CoinsCreditedEvent(idempotencyKey, result));
+
+        log.info("Credited {} wallets in one batch ({} entries)", result.size(), entries.size());
+        entries.forEach(entry -> log.debug("Added {} coins to {}'s wallet ({})", entry.amount(), entry.username(), entry.reason()));
+
+        if (idempotencyKey != null) {
+            idempotencyKeyIndex.putAfterCommit(idempotencyKey, result);
+        }
+        return result;
     }
 
+    /**
+     * Current balance of a wallet, served from the {@link BalanceCache} when possible.
+     */
     public Integer getCoins(String username) {
-        return walletRepository.findByUsername(username)
-                .map(Wallet::getCoins)
-                .orElse(0);
+        Optional<Integer> cachedCoins = balanceCache.get(username);
+        if (cachedCoins.isPresent()) {
+            return cachedCoins.get();
+        }
+
+        long version = balanceCache.version(username);
+        Integer coins = walletRepository.findBalance(username);
+        balanceCache.putIfUnchanged(username, coins, version);
+        return coins;
+    }
+
+    public List<WalletTransactionDto> getTransactions(String username, int limit) {
+        return transactionRepository.findByUsernameOrderByIdDesc(username, PageRequest.of(0, limit)).stream()
+                .map(transaction -> new WalletTransactionDto(
+                        transaction.getId(),
+                        transaction.getAmount(),
+                        transaction.getReason(),
+                        transaction.getCreatedAt()))
+                .toList();
+    }
+
+    private Optional<WalletDto> findPreviousResult(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+
+        Optional<List<WalletDto>> indexed = idempotencyKeyIndex.get(idempotencyKey);
+        if (indexed.isPresent()) {
+            return Optional.of(indexed.get().getFirst());
+        }
+
+        return transactionRepository.findByIdempotencyKey(idempotencyKey)
+                .map(transaction -> new WalletDto(transaction.getUsername(), transaction.getBalanceAfter()))
+                .map(result -> {
+                    idempotencyKeyIndex.put(idempotencyKey, List.of(result));
+                    return result;
+                });
+    }
+
+    private Optional<List<WalletDto>> findPreviousBatchResult(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+
+        Optional<List<WalletDto>> indexed = idempotencyKeyIndex.get(idempotencyKey);
+        if (indexed.isPresent()) {
+            return indexed;
+        }
+
+        // All entries of a batch are committed together, the first one tells whether it was applied
+        if (transactionRepository.findByIdempotencyKey(batchEntryKey(idempotencyKey, 0)).isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<WalletTransaction> transactions = transactionRepository.findByIdempotencyKeyStartingWithOrderById(idempotencyKey + "#");
+
+        // Entries are ordered by id, so the last one per user holds the final balance
+        Map<String, Integer> balances = new LinkedHashMap<>();
+        transactions.forEach(transaction -> balances.put(transaction.getUsername(), transaction.getBalanceAfter()));
+        List<WalletDto> result = balances.entrySet().stream()
+                .map(balance -> new WalletDto(balance.getKey(), balance.getValue()))
+                .toList();
+
+        idempotencyKeyIndex.put(idempotencyKey, result);
+        return Optional.of(result);
+    }
+
+    /**
+     * Reads the balance after an entry was appended, so it includes the entry itself and every
+     * entry committed before it, and stores it on a keyed entry for replays.
+     */
+    private int readBalanceAfter(String username, String idempotencyKey) {
+        int balance = walletRepository.findBalance(username);
+        if (idempotencyKey != null) {
+            transactionRepository.recordBalanceAfter(idempotencyKey, balance);
+        }
+        return balance;
+    }
+
+    private static ChargeResponse charged(WalletDto wallet, Integer amount) {
+        return new ChargeResponse(wallet.username(), true, amount, wallet.coins(), "Coins charged successfully");
+    }
+
+    private WalletDto rememberResult(String idempotencyKey, WalletDto result) {
+        if (idempotencyKey != null) {
+            idempotencyKeyIndex.putAfterCommit(idempotencyKey, List.of(result));
+        }
+        return result;
+    }
+
+    private static String batchEntryKey(String idempotencyKey, int index) {
+        return idempotencyKey + "#" + index;
     }
 }
@@ -0,0 +1,49 @@
+package fhv.omni.wallet.service;
+
+import fhv.omni.wallet.repository.WalletTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Periodically folds unapplied ledger entries into the wallet balance snapshots so balance
+ * reads only have to sum a short tail.
+ */
+@Component
+@Slf4j
+public class WalletSnapshotter {
+    // Bounds a single run so a steady stream of appends cannot keep it going forever
+    private static final int MAX_BATCHES_PER_RUN = 10;
+
+    private final WalletTransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public WalletSnapshotter(WalletTransactionRepository transactionRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${wallet.ledger.snapshot-batch-size:1000}") int batchSize) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.ledger.snapshot-interval-ms:5000}")
+    public void applyPendingTransactions() {
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+                Integer updatedWallets = transactionTemplate.execute(status ->
+                        transactionRepository.applyPendingTransactions(batchSize));
+
+                if (updatedWallets == null || updatedWallets == 0) {
+                    return;
+                }
+
+                log.debug("Applied pending ledger entries to {} wallets", updatedWallets);
+            }
+        } catch (Exception e) {
+            log.error("Error applying pending ledger entries: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package fhv.omni.wallet.service;
+
+import fhv.omni.wallet.entity.Wallet;
+import fhv.omni.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Manual stress test for concurrent wallet mutations against the local PostgreSQL instance
+ * (see application.properties), which the ledger queries depend on. Run with
+ * {@code WALLET_STRESS_TEST=true}. Checks that no update is lost and no wallet is overdrawn,
+ * and logs the throughput of ledger appends next to the previous locked read-modify-write for
+ * comparison; timings are only reported, never asserted.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "WALLET_STRESS_TEST", matches = "true")
+class WalletServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 200;
+
+    private final Logger logger = LoggerFactory.getLogger(WalletServiceConcurrencyTest.class);
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> usernames = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        usernames.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        usernames.forEach(username -> {
+            jdbcTemplate.update("DELETE FROM wallet_transactions WHERE username = ?", username);
+            walletRepository.findByUsername(username).ifPresent(walletRepository::delete);
+        });
+    }
+
+    @Test
+    void concurrentAddCoinsLosesNoUpdates() throws Exception {
+        String username = testUser("add");
+        walletService.createWallet(username);
+
+        long elapsed = runConcurrently(() -> walletService.addCoins(username, 1, null, null));
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expected, walletService.getCoins(username));
+        logThroughput("ledger append", expected, elapsed);
+    }
+
+    @Test
+    void concurrentDeductCoinsNeverOverdraws() throws Exception {
+        String username = testUser("deduct");
+        int initialCoins = THREADS * OPERATIONS_PER_THREAD / 2;
+        walletService.addCoins(username, initialCoins, null, null);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(() -> {
+            try {
+                walletService.deductCoins(username, 1, null);
+                succeeded.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(initialCoins, succeeded.get());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD - initialCoins, rejected.get());
+        assertEquals(0, walletService.getCoins(username));
+    }
+
+    @Test
+    void ledgerAppendAndLockedReadModifyWriteAgree() throws Exception {
+        String appendUser = testUser("append");
+        String lockedUser = testUser("locked");
+        walletService.createWallet(appendUser);
+        walletService.createWallet(lockedUser);
+
+        // Previous implementation: load, mutate in Java and save, serialized with a row lock
+        // so it does not lose updates either
+        long lockedElapsed = runConcurrently(() -> transactionTemplate.executeWithoutResult(status -> {
+            Wallet wallet = walletRepository.findByUsernameForUpdate(lockedUser).orElseThrow();
+            wallet.setCoins(wallet.getCoins() + 1);
+            walletRepository.save(wallet);
+        }));
+        long appendElapsed = runConcurrently(() -> walletService.addCoins(appendUser, 1, null, null));
+
+        int operations = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(operations, walletService.getCoins(lockedUser));
+        assertEquals(operations, walletService.getCoins(appendUser));
+
+        logThroughput("locked read-modify-write", operations, lockedElapsed);
+        logThroughput("ledger append", operations, appendElapsed);
+    }
+
+    private String testUser(String prefix) {
+        String username = "stress-" + prefix + "-" + System.nanoTime();
+        usernames.add(username);
+        return username;
+    }
+
+    private long runConcurrently(Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - startTime;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void logThroughput(String name, int operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        logger.info("{}: {} operations in {} ms ({} ops/s)", name, operations,
+                Math.round(seconds * 1000), Math.round(operations / seconds));
+    }
+}